@@ -0,0 +1,165 @@
+package com.example.lms;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Loads UI images off the FX thread.
+ *
+ * Lookup order for an asset URL:
+ * 1. a bundled resource under /com/example/lms/assets/ named after the last path segment of the URL,
+ * 2. the on-disk cache, which is content-addressed: a downloaded file is stored once under the SHA-256 of
+ *    its bytes in blobs/, and urls/ maps the SHA-256 of each URL to the content hash it resolved to,
+ *    so URLs serving the same image share one file,
+ * 3. the network, after which the file is written to the disk cache for the next start.
+ *
+ * Image views get a transparent placeholder immediately and the real image once it has been decoded,
+ * so screens can be painted before any asset is available.
+ */
+final class AssetLoader {
+
+    private static final String BUNDLED_ASSET_DIR = "/com/example/lms/assets/";
+    private static final String BLOB_DIR = "blobs";
+    private static final String URL_DIR = "urls";
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int READ_TIMEOUT_MS = 10000;
+
+    private final Path cacheDir;
+    private final Image placeholder = new WritableImage(1, 1);
+    private final Map<String, CompletableFuture<Image>> images = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "asset-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    AssetLoader(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Shows the placeholder in the given view and swaps in the image for the URL once it is loaded.
+     */
+    void bind(ImageView imageView, String url) {
+        imageView.setImage(placeholder);
+        load(url, imageView::setImage);
+    }
+
+    /**
+     * Loads the image for the URL in the background and hands it to the callback on the FX thread.
+     * The callback is not invoked if the image cannot be loaded.
+     */
+    void load(String url, Consumer<Image> onLoaded) {
+        images.computeIfAbsent(url, key -> CompletableFuture.supplyAsync(() -> resolve(key), executor))
+                .thenAccept(image -> {
+                    if (image != null) {
+                        Platform.runLater(() -> onLoaded.accept(image));
+                    }
+                });
+    }
+
+    private Image resolve(String url) {
+        try {
+            URL bundled = AssetLoader.class.getResource(BUNDLED_ASSET_DIR + fileName(url));
+            if (bundled != null) {
+                return decode(bundled.toExternalForm());
+            }
+
+            Path cached = cachedBlob(url);
+            if (cached == null) {
+                cached = download(url);
+            }
+            return decode(cached.toUri().toString());
+        } catch (IOException e) {
+            System.err.println("Failed to load image: " + url + " - " + e.getMessage());
+            images.remove(url);
+            return null;
+        }
+    }
+
+    private Image decode(String location) throws IOException {
+        Image image = new Image(location);
+        if (image.isError()) {
+            throw new IOException(image.getException() != null ? image.getException().getMessage() : "Unreadable image");
+        }
+        return image;
+    }
+
+    // The blob the URL resolved to last time, or null if the URL was never downloaded or its blob is gone
+    private Path cachedBlob(String url) throws IOException {
+        Path ref = cacheDir.resolve(URL_DIR).resolve(hex(sha256().digest(url.getBytes(StandardCharsets.UTF_8))));
+        if (!Files.exists(ref)) return null;
+        Path blob = cacheDir.resolve(BLOB_DIR).resolve(Files.readString(ref, StandardCharsets.US_ASCII).trim());
+        return Files.exists(blob) ? blob : null;
+    }
+
+    // Downloads into a temporary file while hashing it, then moves it into blobs/ under its content hash
+    // (unless an identical file is already there) and records that hash for the URL
+    private Path download(String url) throws IOException {
+        Path blobDir = Files.createDirectories(cacheDir.resolve(BLOB_DIR));
+        Path urlDir = Files.createDirectories(cacheDir.resolve(URL_DIR));
+        Path temp = Files.createTempFile(cacheDir, "download", ".tmp");
+        try {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(connection.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String contentHash = hex(digest.digest());
+            Path blob = blobDir.resolve(contentHash);
+            if (!Files.exists(blob)) {
+                Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Path ref = Files.createTempFile(cacheDir, "ref", ".tmp");
+            Files.writeString(ref, contentHash, StandardCharsets.US_ASCII);
+            Files.move(ref, urlDir.resolve(hex(sha256().digest(url.getBytes(StandardCharsets.UTF_8)))),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return blob;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String fileName(String url) {
+        String path = url.replaceAll("[?#].*$", "");
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.lms;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Streams a local file into a staging file in fixed-size chunks and commits it to the material store.
+ *
+ * Each chunk is checksummed with CRC32C and reported to a checkpoint callback once it is durably
+ * written, so an interrupted upload can resume after the last recorded chunk. The SHA-256 used as the
+ * content address is computed in the same pass. Only one chunk buffer is ever allocated, so heap use
+ * does not depend on the file size.
+ */
+final class ChunkedUploader {
+
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Records a chunk that has been written and forced to disk.
+     */
+    interface Checkpoint {
+        void chunkWritten(int chunkIndex, long checksum, long bytesReceived) throws IOException;
+    }
+
+    /**
+     * Receives progress after every chunk.
+     */
+    interface Progress {
+        void update(long bytesReceived, long totalBytes, double bytesPerSecond);
+    }
+
+    private final MaterialFileStore store;
+    private final int chunkSize;
+
+    ChunkedUploader(MaterialFileStore store, int chunkSize) {
+        this.store = store;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Uploads the source file through the staging file.
+     *
+     * @param recordedChecksums checksums of the chunks recorded by an earlier, interrupted attempt
+     *                          (empty for a new upload); staged chunks that do not match are written again
+     */
+    MaterialFileStore.StoredFile upload(Path source, Path staging, long[] recordedChecksums, Checkpoint checkpoint,
+                                        Progress progress, BooleanSupplier cancelled) throws IOException {
+        MessageDigest digest = MaterialFileStore.sha256();
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(staging, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long totalBytes = in.size();
+
+            // Re-hash the chunks that survived the previous attempt and stop at the first one that does not verify
+            long offset = 0;
+            int chunkIndex = 0;
+            while (chunkIndex < recordedChecksums.length && offset < totalBytes) {
+                int length = (int) Math.min(chunkSize, totalBytes - offset);
+                if (readFully(out, buffer, offset, length) < length || checksum(crc, buffer) != recordedChecksums[chunkIndex]) {
+                    break;
+                }
+                digest.update(buffer);
+                offset += length;
+                chunkIndex++;
+            }
+            out.truncate(offset);
+
+            long resumedAt = offset;
+            long startNanos = System.nanoTime();
+            while (offset < totalBytes) {
+                if (cancelled.getAsBoolean()) {
+                    throw new InterruptedIOException("Upload cancelled after " + offset + " bytes");
+                }
+                int length = (int) Math.min(chunkSize, totalBytes - offset);
+                if (readFully(in, buffer, offset, length) < length) {
+                    throw new IOException("Source file changed during upload: " + source);
+                }
+                long chunkChecksum = checksum(crc, buffer);
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer, offset + buffer.position());
+                }
+                out.force(false);
+                offset += length;
+                checkpoint.chunkWritten(chunkIndex++, chunkChecksum, offset);
+
+                double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+                progress.update(offset, totalBytes, (offset - resumedAt) / seconds);
+            }
+        }
+
+        return store.commit(staging, MaterialFileStore.toHex(digest.digest()), Files.size(staging));
+    }
+
+    // Reads up to length bytes at the given position; the buffer is left flipped for reading
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear().limit(length);
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read == -1) break;
+            total += read;
+        }
+        buffer.flip();
+        return total;
+    }
+
+    private static long checksum(CRC32C crc, ByteBuffer buffer) {
+        crc.reset();
+        crc.update(buffer.duplicate());
+        return crc.getValue();
+    }
+}
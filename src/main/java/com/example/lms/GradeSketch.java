@@ -0,0 +1,144 @@
+package com.example.lms;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable summary of a grade distribution on the 0-100 percentage scale.
+ *
+ * Grades live on a small bounded range, so instead of a general-purpose quantile sketch such as a
+ * t-digest this keeps a fixed histogram with half-point bins: quantiles are accurate to a quarter of a
+ * point, two sketches merge by adding their bins, and the serialized form never exceeds about 1.7 KB
+ * however many grades went in. Mean and variance are tracked with Welford's method and merged with
+ * Chan's parallel formula, so they stay exact.
+ */
+final class GradeSketch {
+
+    static final int HISTOGRAM_BUCKETS = 10;
+
+    private static final int BINS_PER_POINT = 2;
+    private static final int BINS = 100 * BINS_PER_POINT + 1;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final long[] bins = new long[BINS];
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Adds one grade; values outside 0-100 are clamped into range.
+     */
+    void add(double percentage) {
+        double value = Math.max(0, Math.min(100, percentage));
+        bins[(int) Math.round(value * BINS_PER_POINT)]++;
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    /**
+     * Folds another sketch into this one, as if its grades had been added here.
+     */
+    void merge(GradeSketch other) {
+        if (other.count == 0) return;
+        for (int i = 0; i < BINS; i++) {
+            bins[i] += other.bins[i];
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count = total;
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    double standardDeviation() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : Double.NaN;
+    }
+
+    double min() {
+        return min;
+    }
+
+    double max() {
+        return max;
+    }
+
+    /**
+     * Returns the grade below which the given fraction (0-1) of grades fall.
+     */
+    double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        double rank = q * (count - 1);
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += bins[i];
+            if (seen > rank) {
+                return (double) i / BINS_PER_POINT;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Counts per ten-point bucket; 100 falls into the last bucket.
+     */
+    long[] histogram() {
+        long[] buckets = new long[HISTOGRAM_BUCKETS];
+        int binsPerBucket = (BINS - 1) / HISTOGRAM_BUCKETS;
+        for (int i = 0; i < BINS; i++) {
+            buckets[Math.min(HISTOGRAM_BUCKETS - 1, i / binsPerBucket)] += bins[i];
+        }
+        return buckets;
+    }
+
+    /**
+     * Serializes the sketch; only non-empty bins are written.
+     */
+    byte[] toBytes() {
+        int used = 0;
+        for (long bin : bins) {
+            if (bin != 0) used++;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 * 4 + 4 + used * (2 + 8));
+        buffer.put(FORMAT_VERSION).putLong(count).putDouble(mean).putDouble(m2).putDouble(min).putDouble(max);
+        buffer.putInt(used);
+        for (int i = 0; i < BINS; i++) {
+            if (bins[i] != 0) {
+                buffer.putShort((short) i).putLong(bins[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    static GradeSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported grade sketch format");
+        }
+        GradeSketch sketch = new GradeSketch();
+        sketch.count = buffer.getLong();
+        sketch.mean = buffer.getDouble();
+        sketch.m2 = buffer.getDouble();
+        sketch.min = buffer.getDouble();
+        sketch.max = buffer.getDouble();
+        int used = buffer.getInt();
+        for (int i = 0; i < used; i++) {
+            sketch.bins[buffer.getShort()] = buffer.getLong();
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.lms;
+
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws a {@link GradebookMatrix} on a single canvas.
+ *
+ * Only the rows and columns inside the viewport are painted, and no node is created per cell, so the
+ * cost of a repaint depends on the window size rather than on the size of the course. The header row
+ * and the student and average columns stay in place while the scores scroll.
+ */
+final class GradebookGrid extends Region {
+
+    private static final double ROW_HEIGHT = 24;
+    private static final double HEADER_HEIGHT = 32;
+    private static final double NAME_WIDTH = 160;
+    private static final double AVERAGE_WIDTH = 80;
+    private static final double CELL_WIDTH = 90;
+    private static final Color HEADER_FILL = Color.web("#2c3e50");
+    private static final Color STRIPE_FILL = Color.web("#f4f6f8");
+    private static final Color FROZEN_FILL = Color.web("#f0f3f6");
+    private static final Color FROZEN_STRIPE_FILL = Color.web("#e8ecf0");
+    private static final Color GRID_LINE = Color.web("#d0d7de");
+    private static final Color FAILING_TEXT = Color.web("#c0392b");
+    private static final Font CELL_FONT = Font.font("Arial", 12);
+    private static final Font HEADER_FONT = Font.font("Arial", FontWeight.BOLD, 12);
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar verticalBar = new ScrollBar();
+    private final ScrollBar horizontalBar = new ScrollBar();
+    private GradebookMatrix matrix;
+    private double passThreshold;
+
+    GradebookGrid() {
+        verticalBar.setOrientation(Orientation.VERTICAL);
+        horizontalBar.setOrientation(Orientation.HORIZONTAL);
+        verticalBar.valueProperty().addListener((obs, old, value) -> paint());
+        horizontalBar.valueProperty().addListener((obs, old, value) -> paint());
+        canvas.setOnScroll(event -> {
+            verticalBar.setValue(clamp(verticalBar.getValue() - event.getDeltaY() / ROW_HEIGHT, verticalBar.getMax()));
+            horizontalBar.setValue(clamp(horizontalBar.getValue() - event.getDeltaX() / CELL_WIDTH, horizontalBar.getMax()));
+        });
+        getChildren().addAll(canvas, verticalBar, horizontalBar);
+        setMinSize(300, 200);
+        setPrefSize(900, 500);
+    }
+
+    void setMatrix(GradebookMatrix matrix, double passThreshold) {
+        this.matrix = matrix;
+        this.passThreshold = passThreshold;
+        verticalBar.setValue(0);
+        horizontalBar.setValue(0);
+        requestLayout();
+        paint();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double barWidth = verticalBar.prefWidth(-1);
+        double barHeight = horizontalBar.prefHeight(-1);
+        double width = Math.max(0, getWidth() - barWidth);
+        double height = Math.max(0, getHeight() - barHeight);
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        verticalBar.resizeRelocate(width, 0, barWidth, height);
+        horizontalBar.resizeRelocate(0, height, width, barHeight);
+        updateScrollRanges();
+        paint();
+    }
+
+    // Scroll bar values are measured in whole rows and columns
+    private void updateScrollRanges() {
+        int rows = matrix != null ? matrix.rows() : 0;
+        int columns = matrix != null ? matrix.columns() : 0;
+        int visibleRows = (int) ((canvas.getHeight() - HEADER_HEIGHT) / ROW_HEIGHT);
+        int visibleColumns = (int) ((canvas.getWidth() - NAME_WIDTH - AVERAGE_WIDTH) / CELL_WIDTH);
+        configure(verticalBar, rows, visibleRows);
+        configure(horizontalBar, columns, visibleColumns);
+    }
+
+    private static void configure(ScrollBar bar, int total, int visible) {
+        double max = Math.max(0, total - visible);
+        bar.setMin(0);
+        bar.setMax(max);
+        bar.setVisibleAmount(Math.max(1, visible));
+        bar.setUnitIncrement(1);
+        bar.setBlockIncrement(Math.max(1, visible - 1));
+        bar.setValue(clamp(bar.getValue(), max));
+        bar.setDisable(max == 0);
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    private void paint() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        if (matrix == null) return;
+
+        int firstRow = (int) verticalBar.getValue();
+        int firstColumn = (int) horizontalBar.getValue();
+        int lastRow = Math.min(matrix.rows(), firstRow + (int) Math.ceil((height - HEADER_HEIGHT) / ROW_HEIGHT) + 1);
+        int lastColumn = Math.min(matrix.columns(), firstColumn + (int) Math.ceil((width - NAME_WIDTH - AVERAGE_WIDTH) / CELL_WIDTH) + 1);
+        double scoresLeft = NAME_WIDTH + AVERAGE_WIDTH;
+
+        g.setTextBaseline(VPos.CENTER);
+        g.setFont(CELL_FONT);
+        for (int row = firstRow; row < lastRow; row++) {
+            double y = HEADER_HEIGHT + (row - firstRow) * ROW_HEIGHT;
+            if ((row & 1) == 1) {
+                g.setFill(STRIPE_FILL);
+                g.fillRect(0, y, width, ROW_HEIGHT);
+            }
+            for (int column = firstColumn; column < lastColumn; column++) {
+                double x = scoresLeft + (column - firstColumn) * CELL_WIDTH;
+                drawScore(g, matrix.score(row, column), x, y, CELL_WIDTH);
+            }
+            // Frozen columns are drawn after the scores so they cover anything scrolled underneath
+            g.setFill((row & 1) == 1 ? FROZEN_STRIPE_FILL : FROZEN_FILL);
+            g.fillRect(0, y, scoresLeft, ROW_HEIGHT);
+            g.setFill(Color.BLACK);
+            g.setTextAlign(TextAlignment.LEFT);
+            g.fillText(fit(matrix.studentNames[row], NAME_WIDTH), 6, y + ROW_HEIGHT / 2);
+            drawScore(g, matrix.average(row), NAME_WIDTH, y, AVERAGE_WIDTH);
+        }
+
+        g.setFill(HEADER_FILL);
+        g.fillRect(0, 0, width, HEADER_HEIGHT);
+        g.setFill(Color.WHITE);
+        g.setFont(HEADER_FONT);
+        g.setTextAlign(TextAlignment.CENTER);
+        for (int column = firstColumn; column < lastColumn; column++) {
+            double x = scoresLeft + (column - firstColumn) * CELL_WIDTH;
+            String prefix = matrix.quizColumns[column] ? "Q: " : "A: ";
+            g.fillText(fit(prefix + matrix.columnTitles[column], CELL_WIDTH), x + CELL_WIDTH / 2, HEADER_HEIGHT / 2);
+        }
+        g.setFill(HEADER_FILL);
+        g.fillRect(0, 0, scoresLeft, HEADER_HEIGHT);
+        g.setFill(Color.WHITE);
+        g.setTextAlign(TextAlignment.LEFT);
+        g.fillText("Student", 6, HEADER_HEIGHT / 2);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.fillText("Average", NAME_WIDTH + AVERAGE_WIDTH / 2, HEADER_HEIGHT / 2);
+
+        g.setStroke(GRID_LINE);
+        g.setLineWidth(1);
+        g.strokeLine(scoresLeft + 0.5, 0, scoresLeft + 0.5, height);
+        g.strokeLine(NAME_WIDTH + 0.5, 0, NAME_WIDTH + 0.5, height);
+    }
+
+    private void drawScore(GraphicsContext g, float score, double x, double y, double cellWidth) {
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setFont(CELL_FONT);
+        if (Float.isNaN(score)) {
+            g.setFill(Color.GRAY);
+            g.fillText("-", x + cellWidth / 2, y + ROW_HEIGHT / 2);
+        } else {
+            g.setFill(score < passThreshold ? FAILING_TEXT : Color.BLACK);
+            g.fillText(String.format("%.1f", score), x + cellWidth / 2, y + ROW_HEIGHT / 2);
+        }
+    }
+
+    // Cheap truncation by character count; exact text measurement per cell would defeat the point of the canvas
+    private static String fit(String text, double cellWidth) {
+        int maxChars = (int) (cellWidth / 7);
+        return text.length() <= maxChars ? text : text.substring(0, Math.max(0, maxChars - 1)) + "...";
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.lms;
+
+import java.util.Arrays;
+
+/**
+ * Scores of one course as a dense students-by-assessments matrix.
+ *
+ * Scores are kept in a single row-major float array with NaN for "no score", so a 2,000 x 150 course
+ * needs about 1.2 MB instead of one boxed object per cell. Per-student averages are computed once
+ * when the matrix is built.
+ */
+final class GradebookMatrix {
+
+    final int[] studentIds;
+    final String[] studentNames;
+    final String[] columnTitles;
+    final boolean[] quizColumns;
+    private final float[] scores;
+    private final float[] averages;
+
+    GradebookMatrix(int[] studentIds, String[] studentNames, String[] columnTitles, boolean[] quizColumns) {
+        this.studentIds = studentIds;
+        this.studentNames = studentNames;
+        this.columnTitles = columnTitles;
+        this.quizColumns = quizColumns;
+        this.scores = new float[studentIds.length * columnTitles.length];
+        this.averages = new float[studentIds.length];
+        Arrays.fill(scores, Float.NaN);
+    }
+
+    int rows() {
+        return studentIds.length;
+    }
+
+    int columns() {
+        return columnTitles.length;
+    }
+
+    float score(int row, int column) {
+        return scores[row * columnTitles.length + column];
+    }
+
+    void setScore(int row, int column, float score) {
+        scores[row * columnTitles.length + column] = score;
+    }
+
+    float average(int row) {
+        return averages[row];
+    }
+
+    /**
+     * Computes the per-student averages over the scores that are present; NaN when a student has none.
+     */
+    void computeAverages() {
+        int columns = columnTitles.length;
+        for (int row = 0; row < studentIds.length; row++) {
+            double sum = 0;
+            int count = 0;
+            for (int i = row * columns, end = i + columns; i < end; i++) {
+                if (!Float.isNaN(scores[i])) {
+                    sum += scores[i];
+                    count++;
+                }
+            }
+            averages[row] = count > 0 ? (float) (sum / count) : Float.NaN;
+        }
+    }
+}
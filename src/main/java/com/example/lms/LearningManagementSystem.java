@@ -1,32 +1,62 @@
 package com.example.lms;
 
+import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import java.sql.Date;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
+import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.effect.DropShadow;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class LearningManagementSystem extends Application {
 
@@ -42,13 +72,83 @@ public class LearningManagementSystem extends Application {
     private String currentUser;
     private String currentRole;
     private String currentTheme = "Light"; // Default theme
-    private double passThreshold = 70.0; // Default passing grade (%)
-    private boolean emailNotifications = true; // Default notification setting
+    private volatile double passThreshold = 70.0; // Passing grade (%) as last read from lms_settings; shown in the UI
+    private volatile boolean emailNotifications = true; // Default notification setting; also read when queuing email
     private String backupSchedule = "Daily"; // Default backup schedule
-
-    // Sample data
-    private List<String> courses = new ArrayList<>();
-    private List<String> students = new ArrayList<>();
+    private volatile int notificationRetentionDays = 90; // Read notifications older than this are pruned
+    private volatile int notificationsPerUserCap = 500; // Newest notifications kept per user; older read ones are pruned
+
+    // Enables login and sign-up once the background database bootstrap has finished
+    private final BooleanProperty databaseReady = new SimpleBooleanProperty(false);
+    // Background jobs share one thread and one connection of their own
+    private final ScheduledExecutorService maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lms-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Connection maintenanceConnection;
+
+    // Uploaded material files, stored once per distinct content. Every client must see the same files, so the
+    // root has to be shared storage (e.g. a network share mounted on each machine) named by lms.files.root;
+    // without it, attaching and downloading files is disabled and only text materials are available
+    private final MaterialFileStore materialStore = System.getProperty("lms.files.root") != null
+            ? new MaterialFileStore(Paths.get(System.getProperty("lms.files.root"))) : null;
+
+    // Large text bodies (material content, submissions) are only fetched for the selected row
+    private static final int PREVIEW_LENGTH = 200;
+    private static final int GRADING_CLAIM_BATCH = 10;
+    private static final int GRADING_LEASE_MINUTES = 30;
+    // Flags every graded enrollment below the stored threshold; enrollments with nothing graded yet are not evaluated
+    private static final String AT_RISK_REBUILD_SQL = "INSERT INTO at_risk_enrollments (enrollment_id, course_id, student_id, progress, threshold, flagged_at) " +
+            "SELECT e.id, e.course_id, e.student_id, e.progress, t.pass_threshold, now() FROM enrollments e, lms_settings t " +
+            "WHERE e.progress < t.pass_threshold " +
+            "AND (EXISTS (SELECT 1 FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
+            "WHERE a.course_id = e.course_id AND sa.student_id = e.student_id AND sa.grade IS NOT NULL) " +
+            "OR EXISTS (SELECT 1 FROM quiz_submissions qs JOIN quizzes q ON qs.quiz_id = q.id " +
+            "WHERE q.course_id = e.course_id AND qs.student_id = e.student_id))";
+    private static final int REMINDER_WINDOW_DAYS = 2;
+    private static final int REMINDER_CHUNK_SIZE = 500;
+    private static final long REMINDER_INTERVAL_MINUTES = 15;
+    private static final int NOTIFICATION_LIST_LIMIT = 200;
+    private static final int DIGEST_WINDOW_MINUTES = 60;
+    private static final int DIGEST_MAX_DETAILS = 50;
+    private static final int PRUNE_CHUNK_SIZE = 5000;
+    private static final long PRUNE_INTERVAL_MINUTES = 60;
+    private static final int EMAIL_BATCH_SIZE = 100;
+    private static final int EMAIL_LEASE_MINUTES = 10;
+    private static final int EMAIL_MAX_ATTEMPTS = 8;
+    private static final long EMAIL_MAX_BACKOFF_SECONDS = 6 * 60 * 60;
+    private static final long EMAIL_INTERVAL_MINUTES = 1;
+    private static final long COUNTER_RECONCILE_INTERVAL_MINUTES = 60;
+    private static final int INBOX_PAGE_SIZE = 30;
+    private static final int MESSAGE_PAGE_SIZE = 50;
+    private static final int BROADCAST_CHUNK_SIZE = 1000;
+    private static final int HELP_CLAIM_BATCH = 5;
+    private static final int HELP_LEASE_MINUTES = 15;
+    private static final int HELP_PAGE_SIZE = 50;
+    private static final int ENROLL_MAX_RETRIES = 3;
+    private static final Duration READ_RECEIPT_FLUSH_DELAY = Duration.seconds(2);
+    // Submissions another grader holds a live claim on are left alone
+    private static final String UNCLAIMED_OR_MINE = "(claimed_by IS NULL OR claimed_by = ? OR claim_expires_at < now())";
+    private static final int SEARCH_INDEXED_CHARS = 200_000;
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int LARGE_TEXT_CHUNK_CHARS = 1 << 20;
+    private static final long LARGE_TEXT_CACHE_CHARS = 8L << 20;
+    // Material bodies, which are never edited once posted. Bounded by total characters rather than entry count,
+    // so a few multi-megabyte bodies cannot pin the heap
+    private final LruCache<String, String> largeTextCache = new LruCache<>(LARGE_TEXT_CACHE_CHARS, String::length);
+    // Notifications shown as read but not yet written back; collected on the FX thread and flushed as one
+    // statement per READ_RECEIPT_FLUSH_DELAY, so browsing the list does not cost a query per row
+    private final Set<Integer> pendingReadIds = new LinkedHashSet<>();
+    private final PauseTransition readReceiptFlush = new PauseTransition(READ_RECEIPT_FLUSH_DELAY);
+    // Enrollment throughput and contention since startup, updated from whichever thread enrolls
+    private final EnrollmentMetrics enrollmentMetrics = new EnrollmentMetrics();
+    // Grade distribution sketches per course, reused only while grade_sketches still holds the same computation
+    private final Map<Integer, CourseGradeStats> gradeStatsCache = new ConcurrentHashMap<>();
+
+    // Constructed views, reused across navigation until logout or View > Refresh
+    private final Map<String, Node> viewRegistry = new HashMap<>();
+    private String currentViewKey;
 
     // Online image URLs
     private static final String BACKGROUND_IMAGE_URL = "https://images.unsplash.com/photo-1509062522246-3755977927d7";
@@ -58,6 +158,10 @@ public class LearningManagementSystem extends Application {
     private static final String PROGRESS_ICON_URL = "https://cdn-icons-png.flaticon.com/512/1828/1828961.png";
     private static final String NOTIFICATION_ICON_URL = "https://cdn-icons-png.flaticon.com/512/733/733635.png";
 
+    // Bundled assets win over the network; downloads are cached on disk for the next start
+    private final AssetLoader assetLoader = new AssetLoader(Paths.get(
+            System.getProperty("lms.cache.dir", System.getProperty("user.home") + File.separator + ".lms" + File.separator + "cache")));
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -67,45 +171,555 @@ public class LearningManagementSystem extends Application {
         this.primaryStage = primaryStage;
         this.primaryStage.setTitle("Learning Management System");
 
-        // Set application icon
+        // Set application icon once the logo has loaded in the background
+        assetLoader.load(LOGO_URL, logo -> this.primaryStage.getIcons().add(logo));
+
+        // Bootstrap the database in the background while the welcome page is built and shown
+        StartupTimer timer = new StartupTimer();
+        CompletableFuture<Void> bootstrap = CompletableFuture.runAsync(() -> {
+            initializeDatabase(timer);
+            timer.measure("sample data", this::loadSampleData);
+        });
+
+        timer.measure("welcome page", this::showWelcomePage);
+
+        bootstrap.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                showAlert("Startup Error", "Failed to initialize application: " + cause.getMessage());
+                cause.printStackTrace();
+                primaryStage.close();
+                return;
+            }
+            databaseReady.set(true);
+            logActivity("System started");
+            System.out.println(timer.summary());
+            startMaintenanceJobs();
+        }));
+    }
+
+    @Override
+    public void stop() {
+        flushReadReceipts();
+        maintenanceScheduler.shutdownNow();
         try {
-            Image logo = new Image(LOGO_URL);
-            this.primaryStage.getIcons().add(logo);
-        } catch (Exception e) {
-            System.err.println("Error loading logo: " + e.getMessage());
+            maintenanceScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        closeQuietly(maintenanceConnection);
+        closeQuietly(connection);
+    }
 
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) return;
         try {
-            initializeDatabase();
-            loadSampleData();
-            showWelcomePage();
-            logActivity("System started");
-        } catch (Exception e) {
-            showAlert("Startup Error", "Failed to initialize application: " + e.getMessage());
-            e.printStackTrace();
-            primaryStage.close();
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    private void startMaintenanceJobs() {
+        scheduleMaintenance("deadline reminders", 1, REMINDER_INTERVAL_MINUTES, this::sendDeadlineReminders);
+        scheduleMaintenance("notification pruning", 5, PRUNE_INTERVAL_MINUTES, this::pruneNotifications);
+        scheduleMaintenance("email dispatch", 1, EMAIL_INTERVAL_MINUTES, this::dispatchEmailOutbox);
+        scheduleMaintenance("notification counter reconciliation", 10, COUNTER_RECONCILE_INTERVAL_MINUTES, this::reconcileNotificationCounters);
+    }
+
+    // Rewrites the unread counters that disagree with the notifications themselves, counted through the
+    // partial index on unread rows. A counter changed by a transaction committing during the run can be
+    // set to the count read before it; the next run corrects that.
+    private int reconcileNotificationCounters(Connection conn) throws SQLException {
+        String sql = "WITH actual AS (SELECT u.id AS user_id, COUNT(n.id) AS unread FROM users u " +
+                "LEFT JOIN notifications n ON n.user_id = u.id AND n.is_read = FALSE GROUP BY u.id) " +
+                "INSERT INTO notification_counters (user_id, unread) SELECT a.user_id, a.unread FROM actual a " +
+                "LEFT JOIN notification_counters c ON c.user_id = a.user_id " +
+                "WHERE c.unread IS DISTINCT FROM a.unread AND NOT (c.user_id IS NULL AND a.unread = 0) " +
+                "ON CONFLICT (user_id) DO UPDATE SET unread = EXCLUDED.unread";
+        try (Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    // Drains email_outbox in batches. A batch is claimed with SKIP LOCKED and a lease, so a second instance
+    // takes other rows and a crashed one's rows come back after EMAIL_LEASE_MINUTES; the claim commits before
+    // any mail is sent. Each batch goes out over one pipelined SMTP connection and its outcome is written back
+    // in two statements. Transient failures back off exponentially; permanent ones and exhausted rows are Failed.
+    private int dispatchEmailOutbox(Connection conn) throws SQLException {
+        String claimSql = "UPDATE email_outbox o SET claimed_until = now() + make_interval(mins => ?), attempts = o.attempts + 1 " +
+                "WHERE o.id IN (SELECT id FROM email_outbox WHERE status = 'Pending' AND next_attempt_at <= now() " +
+                "AND (claimed_until IS NULL OR claimed_until < now()) ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING o.id, o.recipient, o.subject, o.body, o.dedup_key, o.attempts";
+        String sentSql = "UPDATE email_outbox SET status = 'Sent', sent_at = now(), claimed_until = NULL, last_error = NULL " +
+                "WHERE id = ANY(?)";
+        String unsentSql = "UPDATE email_outbox SET status = ?, next_attempt_at = now() + make_interval(secs => ?), " +
+                "claimed_until = NULL, last_error = ? WHERE id = ?";
+        int sent = 0;
+        try (PreparedStatement claimStmt = conn.prepareStatement(claimSql);
+             PreparedStatement sentStmt = conn.prepareStatement(sentSql);
+             PreparedStatement unsentStmt = conn.prepareStatement(unsentSql)) {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<OutboxEmail> batch = new ArrayList<>();
+                claimStmt.setInt(1, EMAIL_LEASE_MINUTES);
+                claimStmt.setInt(2, EMAIL_BATCH_SIZE);
+                ResultSet rs = claimStmt.executeQuery();
+                while (rs.next()) {
+                    batch.add(new OutboxEmail(rs.getLong("id"), rs.getString("recipient"), rs.getString("subject"),
+                            rs.getString("body"), rs.getString("dedup_key"), rs.getInt("attempts")));
+                }
+                if (batch.isEmpty()) break;
+
+                List<Long> sentIds = new ArrayList<>();
+                String connectionError = null;
+                try (SmtpClient smtp = SmtpClient.connect()) {
+                    for (OutboxEmail email : batch) {
+                        SmtpClient.Result result = smtp.send(email.recipient, email.subject, email.body,
+                                email.dedupKey.replace(':', '.') + "@lms.local");
+                        if (result.sent) {
+                            sentIds.add(email.id);
+                        } else {
+                            addUnsent(unsentStmt, email, result.permanent, result.reply);
+                        }
+                        email.done = true;
+                    }
+                } catch (IOException e) {
+                    connectionError = "SMTP connection failed: " + e.getMessage();
+                }
+                // Rows the connection failure left unsent go back to the queue with backoff
+                for (OutboxEmail email : batch) {
+                    if (!email.done) addUnsent(unsentStmt, email, false, connectionError);
+                }
+
+                if (!sentIds.isEmpty()) {
+                    sentStmt.setArray(1, conn.createArrayOf("bigint", sentIds.toArray()));
+                    sentStmt.executeUpdate();
+                }
+                unsentStmt.executeBatch();
+                sent += sentIds.size();
+                if (connectionError != null) {
+                    System.err.println("Email dispatch paused: " + connectionError);
+                    break;
+                }
+                if (batch.size() < EMAIL_BATCH_SIZE) break;
+            }
+        }
+        return sent;
+    }
+
+    private static void addUnsent(PreparedStatement stmt, OutboxEmail email, boolean permanent, String error) throws SQLException {
+        boolean failed = permanent || email.attempts >= EMAIL_MAX_ATTEMPTS;
+        stmt.setString(1, failed ? "Failed" : "Pending");
+        stmt.setLong(2, Math.min(EMAIL_MAX_BACKOFF_SECONDS, 30L << Math.min(20, email.attempts - 1)));
+        stmt.setString(3, error);
+        stmt.setLong(4, email.id);
+        stmt.addBatch();
+    }
+
+    // Applies the notification retention policy with many small deletes, each its own short transaction,
+    // so pruning a large backlog never holds locks for long or bloats one huge transaction
+    private int pruneNotifications(Connection conn) throws SQLException {
+        int deleted = 0;
+
+        // Read notifications past the retention period, oldest first through the partial index on read rows
+        String expiredSql = "DELETE FROM notifications WHERE id IN (SELECT id FROM notifications " +
+                "WHERE is_read = TRUE AND created_at < now() - make_interval(days => ?) ORDER BY created_at LIMIT ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(expiredSql)) {
+            int chunk;
+            do {
+                stmt.setInt(1, notificationRetentionDays);
+                stmt.setInt(2, PRUNE_CHUNK_SIZE);
+                chunk = stmt.executeUpdate();
+                deleted += chunk;
+            } while (chunk == PRUNE_CHUNK_SIZE && !Thread.currentThread().isInterrupted());
+        }
+
+        // Read notifications beyond the newest notificationsPerUserCap rows of each user; unread ones are kept
+        // however many there are. The cutoff of each user over the cap is found by stepping notificationsPerUserCap
+        // entries down the (user_id, created_at, id) index, so users under the cap cost one short index probe
+        List<Triple<Integer, Timestamp, Integer>> cutoffs = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT u.id AS user_id, c.created_at, c.id FROM users u " +
+                "CROSS JOIN LATERAL (SELECT n.created_at, n.id FROM notifications n WHERE n.user_id = u.id " +
+                "ORDER BY n.created_at DESC, n.id DESC OFFSET ? LIMIT 1) c")) {
+            stmt.setInt(1, notificationsPerUserCap);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                cutoffs.add(new Triple<>(rs.getInt("user_id"), rs.getTimestamp("created_at"), rs.getInt("id")));
+            }
+        }
+        String capSql = "DELETE FROM notifications WHERE id IN (SELECT id FROM notifications WHERE user_id = ? " +
+                "AND is_read = TRUE AND (created_at, id) <= (?, ?) ORDER BY created_at, id LIMIT ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(capSql)) {
+            for (Triple<Integer, Timestamp, Integer> cutoff : cutoffs) {
+                int chunk;
+                do {
+                    stmt.setInt(1, cutoff.getFirst());
+                    stmt.setTimestamp(2, cutoff.getSecond());
+                    stmt.setInt(3, cutoff.getThird());
+                    stmt.setInt(4, PRUNE_CHUNK_SIZE);
+                    chunk = stmt.executeUpdate();
+                    deleted += chunk;
+                } while (chunk == PRUNE_CHUNK_SIZE && !Thread.currentThread().isInterrupted());
+            }
         }
+        return deleted;
     }
 
-    private Image loadImage(String url) {
+    // Runs the job periodically on the maintenance thread; a failed run is logged and retried at the next period
+    private void scheduleMaintenance(String name, long initialDelayMinutes, long periodMinutes, MaintenanceJob job) {
+        maintenanceScheduler.scheduleWithFixedDelay(() -> runMaintenance(name, job), initialDelayMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    // Runs follow-up work once on the maintenance thread, off the UI's round trip; failures are only logged
+    private void runInBackground(String name, MaintenanceJob job) {
+        maintenanceScheduler.execute(() -> runMaintenance(name, job));
+    }
+
+    private void runMaintenance(String name, MaintenanceJob job) {
         try {
-            return new Image(url);
-        } catch (Exception e) {
-            System.err.println("Failed to load image: " + url + " - " + e.getMessage());
-            return null;
+            if (maintenanceConnection == null || !maintenanceConnection.isValid(2)) {
+                closeQuietly(maintenanceConnection);
+                maintenanceConnection = openConnection();
+            }
+            long start = System.nanoTime();
+            int affected = job.run(maintenanceConnection);
+            if (affected > 0) {
+                System.out.println("Maintenance: " + name + " processed " + affected + " row(s) in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } catch (SQLException e) {
+            System.err.println("Maintenance job '" + name + "' failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Letting this escape would cancel a periodic job for good and vanish silently inside the executor
+            System.err.println("Maintenance job '" + name + "' failed unexpectedly: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    // Reminds enrolled students who have not submitted about assignments due within REMINDER_WINDOW_DAYS.
+    // Due assignments are walked in keyset chunks over the (deadline, id) index; for each chunk one statement
+    // anti-joins submissions and records the reminder in deadline_reminders (whose key makes reminding the
+    // same student twice impossible), and only the newly recorded rows go through FOLD_NOTIFICATION_SQL,
+    // so reminders for one course fold into a digest like any other notification. Each chunk commits
+    // its reminders together with their notifications.
+    private int sendDeadlineReminders(Connection conn) throws SQLException {
+        String dueSql = "SELECT id, deadline FROM assignments WHERE deadline <= ? AND (deadline, id) > (?, ?) " +
+                "ORDER BY deadline, id LIMIT ?";
+        String recordSql = "WITH due AS (SELECT id, course_id, title, deadline FROM assignments WHERE id = ANY(?)), " +
+                "pending AS (SELECT d.id AS assignment_id, e.student_id FROM due d JOIN enrollments e ON e.course_id = d.course_id " +
+                "WHERE NOT EXISTS (SELECT 1 FROM student_assignments sa " +
+                "WHERE sa.assignment_id = d.id AND sa.student_id = e.student_id AND sa.submission IS NOT NULL)), " +
+                "recorded AS (INSERT INTO deadline_reminders (assignment_id, student_id, sent_at) " +
+                "SELECT assignment_id, student_id, now() FROM pending ON CONFLICT DO NOTHING " +
+                "RETURNING assignment_id, student_id) " +
+                "SELECT r.student_id, d.course_id, d.title, d.deadline FROM recorded r JOIN due d ON d.id = r.assignment_id";
+        LocalDate today = LocalDate.now();
+        Date cursorDate = Date.valueOf(today);
+        int cursorId = 0;
+        int sent = 0;
+        try (PreparedStatement dueStmt = conn.prepareStatement(dueSql);
+             PreparedStatement recordStmt = conn.prepareStatement(recordSql);
+             PreparedStatement notifyStmt = conn.prepareStatement(FOLD_NOTIFICATION_SQL)) {
+            while (!Thread.currentThread().isInterrupted()) {
+                dueStmt.setDate(1, Date.valueOf(today.plusDays(REMINDER_WINDOW_DAYS)));
+                dueStmt.setDate(2, cursorDate);
+                dueStmt.setInt(3, cursorId);
+                dueStmt.setInt(4, REMINDER_CHUNK_SIZE);
+                List<Integer> dueIds = new ArrayList<>();
+                ResultSet due = dueStmt.executeQuery();
+                while (due.next()) {
+                    dueIds.add(due.getInt("id"));
+                    cursorDate = due.getDate("deadline");
+                    cursorId = due.getInt("id");
+                }
+                if (dueIds.isEmpty()) break;
+
+                conn.setAutoCommit(false);
+                try {
+                    recordStmt.setArray(1, conn.createArrayOf("integer", dueIds.toArray()));
+                    ResultSet rs = recordStmt.executeQuery();
+                    int recorded = 0;
+                    while (rs.next()) {
+                        String content = "Reminder: assignment '" + rs.getString("title") + "' is due on "
+                                + rs.getDate("deadline").toLocalDate();
+                        bindNotification(notifyStmt, rs.getInt("student_id"), rs.getInt("course_id"), content, "Deadline");
+                        notifyStmt.addBatch();
+                        recorded++;
+                    }
+                    if (recorded > 0) {
+                        notifyStmt.executeBatch();
+                    }
+                    conn.commit();
+                    sent += recorded;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                if (dueIds.size() < REMINDER_CHUNK_SIZE) break;
+            }
         }
+        return sent;
     }
 
-    private void initializeDatabase() {
+    private ImageView createImageView(String url, double width, double height) {
+        ImageView imageView = new ImageView();
+        imageView.setFitWidth(width);
+        imageView.setFitHeight(height);
+        assetLoader.bind(imageView, url);
+        return imageView;
+    }
+
+    private void initializeDatabase(StartupTimer timer) {
         try {
-            connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            long start = System.nanoTime();
+            connection = openConnection();
+            timer.record("connect", start);
+
+            start = System.nanoTime();
             createTablesIfNotExist();
+            applyMigrations();
+            syncAtRiskThreshold();
+            timer.record("schema", start);
+
+            start = System.nanoTime();
             ensureDefaultAdmin();
+            timer.record("default admin", start);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to database: " + e.getMessage(), e);
         }
     }
 
+    // Separate connections are used by background work so it never interleaves with UI statements
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+    }
+
+    // One-off schema and data changes that must not be repeated on every start
+    private void applyMigrations() throws SQLException {
+        // Schema changes run once here rather than in the startup batch: ALTER TABLE takes an ACCESS EXCLUSIVE
+        // lock even when IF NOT EXISTS turns it into a no-op. Indexes and views over new columns come with them.
+
+        // Metadata for files kept in the content-addressed material store
+        runMigration("2024_materials_file_columns",
+                "ALTER TABLE materials " +
+                        "ADD COLUMN IF NOT EXISTS content_hash CHAR(64), " +
+                        "ADD COLUMN IF NOT EXISTS file_size BIGINT, " +
+                        "ADD COLUMN IF NOT EXISTS file_name VARCHAR(255), " +
+                        "ADD COLUMN IF NOT EXISTS mime_type VARCHAR(100)");
+
+        // Full-text search over materials; the vector is maintained by PostgreSQL and only the first
+        // SEARCH_INDEXED_CHARS of the content are indexed so very large materials stay under the tsvector limit
+        runMigration("2024_materials_search_vector",
+                "ALTER TABLE materials ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+                        "GENERATED ALWAYS AS (" +
+                        "setweight(to_tsvector('english', coalesce(title, '')), 'A') || " +
+                        "setweight(to_tsvector('english', left(coalesce(content, ''), " + SEARCH_INDEXED_CHARS + ")), 'B')) STORED",
+                "CREATE INDEX IF NOT EXISTS idx_materials_search ON materials USING GIN (search_vector)");
+
+        // Grading queue claims; a claim is only honoured until its lease expires
+        runMigration("2024_grading_claim_columns",
+                "ALTER TABLE student_assignments " +
+                        "ADD COLUMN IF NOT EXISTS claimed_by INTEGER REFERENCES users(id), " +
+                        "ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP");
+
+        // Digest columns: notifications of one type and course fold into a single unread row
+        runMigration("2024_notification_digest_columns",
+                "ALTER TABLE notifications " +
+                        "ADD COLUMN IF NOT EXISTS course_id INTEGER REFERENCES courses(id) ON DELETE SET NULL, " +
+                        "ADD COLUMN IF NOT EXISTS digest_count INTEGER NOT NULL DEFAULT 1, " +
+                        "ADD COLUMN IF NOT EXISTS details TEXT[]",
+                "CREATE INDEX IF NOT EXISTS idx_notifications_digest " +
+                        "ON notifications (user_id, type, course_id, created_at DESC) WHERE is_read = FALSE");
+
+        // Messages belong to a conversation; the backfill below fills the column for older messages
+        runMigration("2024_messages_conversation_column",
+                "ALTER TABLE messages " +
+                        "ADD COLUMN IF NOT EXISTS conversation_id INTEGER REFERENCES conversations(id) ON DELETE CASCADE",
+                "CREATE INDEX IF NOT EXISTS idx_messages_conversation " +
+                        "ON messages (conversation_id, id DESC)");
+
+        // Help tickets are claimed by one admin at a time under a lease, like grading claims
+        runMigration("2024_help_claim_columns",
+                "ALTER TABLE help_messages " +
+                        "ADD COLUMN IF NOT EXISTS claimed_by INTEGER REFERENCES users(id) ON DELETE SET NULL, " +
+                        "ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP, " +
+                        "ADD COLUMN IF NOT EXISTS resolved_by INTEGER REFERENCES users(id) ON DELETE SET NULL, " +
+                        "ADD COLUMN IF NOT EXISTS resolved_at TIMESTAMP",
+                "CREATE INDEX IF NOT EXISTS idx_help_messages_pending " +
+                        "ON help_messages (created_at, id) WHERE status = 'Pending'",
+                "CREATE INDEX IF NOT EXISTS idx_help_messages_status " +
+                        "ON help_messages (status, created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_help_messages_resolved " +
+                        "ON help_messages (resolved_at) WHERE status = 'Resolved'");
+
+        // Seat limits: capacity NULL means unlimited; seats_taken is only changed by conditional updates,
+        // so the course row is locked just for the statement that takes or frees a seat
+        runMigration("2024_course_capacity_columns",
+                "ALTER TABLE courses " +
+                        "ADD COLUMN IF NOT EXISTS capacity INTEGER, " +
+                        "ADD COLUMN IF NOT EXISTS seats_taken INTEGER NOT NULL DEFAULT 0");
+
+        // Quiz attempts: each submission is numbered per student and scored when inserted; the policy decides
+        // which attempt counts, and quiz_effective_scores applies it for progress, gradebook and statistics
+        runMigration("2024_quiz_attempt_columns",
+                "ALTER TABLE quizzes " +
+                        "ADD COLUMN IF NOT EXISTS max_attempts INTEGER, " +
+                        "ADD COLUMN IF NOT EXISTS scoring_policy VARCHAR(10) NOT NULL DEFAULT 'Best'",
+                "ALTER TABLE quiz_submissions ADD COLUMN IF NOT EXISTS attempt_no INTEGER",
+                "CREATE OR REPLACE VIEW quiz_effective_scores AS " +
+                        "SELECT DISTINCT ON (qs.quiz_id, qs.student_id) qs.quiz_id, qs.student_id, q.course_id, qs.score, q.total_points " +
+                        "FROM quiz_submissions qs JOIN quizzes q ON q.id = qs.quiz_id " +
+                        "ORDER BY qs.quiz_id, qs.student_id, CASE WHEN q.scoring_policy = 'Best' THEN qs.score ELSE 0 END DESC, qs.attempt_no DESC");
+
+        // Quizzes gain option shuffling and closing, and the single question moves to quiz_questions; a
+        // submission stores one answer per question
+        runMigration("2024_quiz_question_columns",
+                "ALTER TABLE quizzes " +
+                        "ADD COLUMN IF NOT EXISTS shuffle_options BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "ADD COLUMN IF NOT EXISTS closed_at TIMESTAMP, " +
+                        "ALTER COLUMN question DROP NOT NULL",
+                "ALTER TABLE quiz_submissions ADD COLUMN IF NOT EXISTS answers INTEGER[]");
+
+        // Per-student assignment rows are created when the student submits; drop the empty rows the old
+        // eager fan-out created, then make (assignment, student) unique so submissions can be upserted
+        runMigration("2024_lazy_student_assignments",
+                "DELETE FROM student_assignments WHERE submission IS NULL AND grade IS NULL AND feedback IS NULL",
+                "DELETE FROM student_assignments sa USING student_assignments newer " +
+                        "WHERE sa.assignment_id = newer.assignment_id AND sa.student_id = newer.student_id AND sa.id < newer.id",
+                "CREATE UNIQUE INDEX IF NOT EXISTS idx_student_assignments_unique ON student_assignments (assignment_id, student_id)");
+
+        // The settings row every client reads its shared settings from
+        runMigration("2024_lms_settings", "INSERT INTO lms_settings (id) VALUES (TRUE) ON CONFLICT DO NOTHING");
+
+        runMigration("2024_at_risk_backfill", AT_RISK_REBUILD_SQL);
+
+        // Unread counters follow every insert, read and delete through statement-level triggers, which see
+        // all rows a statement changed at once, so a batch of notifications costs one counter update per user
+        runMigration("2024_notification_counters",
+                "CREATE OR REPLACE FUNCTION notification_counters_apply() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                        "BEGIN " +
+                        "IF TG_OP = 'INSERT' THEN " +
+                        "INSERT INTO notification_counters (user_id, unread) " +
+                        "SELECT user_id, COUNT(*) FROM new_rows WHERE is_read = FALSE GROUP BY user_id " +
+                        "ON CONFLICT (user_id) DO UPDATE SET unread = notification_counters.unread + EXCLUDED.unread; " +
+                        "ELSIF TG_OP = 'UPDATE' THEN " +
+                        "UPDATE notification_counters c SET unread = GREATEST(0, c.unread + d.delta) " +
+                        "FROM (SELECT n.user_id, SUM((n.is_read = FALSE)::int - (o.is_read = FALSE)::int) AS delta " +
+                        "FROM new_rows n JOIN old_rows o ON o.id = n.id GROUP BY n.user_id) d " +
+                        "WHERE c.user_id = d.user_id AND d.delta <> 0; " +
+                        "ELSE " +
+                        "UPDATE notification_counters c SET unread = GREATEST(0, c.unread - d.unread) " +
+                        "FROM (SELECT user_id, COUNT(*) AS unread FROM old_rows WHERE is_read = FALSE GROUP BY user_id) d " +
+                        "WHERE c.user_id = d.user_id; " +
+                        "END IF; " +
+                        "RETURN NULL; " +
+                        "END $$",
+                "CREATE TRIGGER notifications_count_insert AFTER INSERT ON notifications " +
+                        "REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE PROCEDURE notification_counters_apply()",
+                "CREATE TRIGGER notifications_count_update AFTER UPDATE ON notifications " +
+                        "REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE PROCEDURE notification_counters_apply()",
+                "CREATE TRIGGER notifications_count_delete AFTER DELETE ON notifications " +
+                        "REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE PROCEDURE notification_counters_apply()",
+                "INSERT INTO notification_counters (user_id, unread) " +
+                        "SELECT user_id, COUNT(*) FROM notifications WHERE is_read = FALSE AND user_id IS NOT NULL GROUP BY user_id " +
+                        "ON CONFLICT (user_id) DO UPDATE SET unread = EXCLUDED.unread");
+
+        // Numbers existing submissions per student in submission order and rescores each from its own answer;
+        // scores used to be rewritten for every attempt whenever the student submitted again
+        runMigration("2024_quiz_attempts",
+                "UPDATE quiz_submissions qs SET attempt_no = n.attempt_no, " +
+                        "score = CASE WHEN qs.selected_option = q.correct_option THEN q.total_points ELSE 0 END " +
+                        "FROM (SELECT id, row_number() OVER (PARTITION BY quiz_id, student_id ORDER BY submitted_date, id) AS attempt_no " +
+                        "FROM quiz_submissions) n, quizzes q WHERE n.id = qs.id AND q.id = qs.quiz_id",
+                "CREATE UNIQUE INDEX IF NOT EXISTS idx_quiz_submissions_attempt ON quiz_submissions (quiz_id, student_id, attempt_no)");
+
+        // Each single-question quiz becomes a one-question set worth its total points, and its submissions
+        // keep the chosen option as a one-element answer array
+        runMigration("2024_quiz_questions",
+                "INSERT INTO quiz_questions (quiz_id, position, question, options, correct_option, points) " +
+                        "SELECT id, 1, question, options, COALESCE(correct_option, 0), COALESCE(total_points, 100) FROM quizzes " +
+                        "WHERE question IS NOT NULL AND options IS NOT NULL ON CONFLICT DO NOTHING",
+                "UPDATE quiz_submissions SET answers = ARRAY[COALESCE(selected_option, 0)] WHERE answers IS NULL");
+
+        // Large bodies are read back in chunks with substr(); uncompressed out-of-line storage lets each chunk
+        // fetch only the slices it needs instead of decompressing the whole value. Applies to values written
+        // from now on; existing compressed values are still read correctly, just without the saving.
+        runMigration("2024_large_text_storage",
+                "ALTER TABLE materials ALTER COLUMN content SET STORAGE EXTERNAL",
+                "ALTER TABLE student_assignments ALTER COLUMN submission SET STORAGE EXTERNAL");
+
+        runMigration("2024_course_seats_backfill",
+                "UPDATE courses c SET seats_taken = (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id)");
+
+        // Groups the messages sent before conversations existed and builds their participant rows
+        runMigration("2024_conversations_backfill",
+                "INSERT INTO conversations (course_id, user_low, user_high, created_at) " +
+                        "SELECT course_id, LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id), MIN(sent_time) " +
+                        "FROM messages WHERE conversation_id IS NULL AND sender_id IS NOT NULL AND receiver_id IS NOT NULL " +
+                        "GROUP BY course_id, LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id) ON CONFLICT DO NOTHING",
+                "UPDATE messages m SET conversation_id = c.id FROM conversations c WHERE m.conversation_id IS NULL " +
+                        "AND c.course_id IS NOT DISTINCT FROM m.course_id " +
+                        "AND c.user_low = LEAST(m.sender_id, m.receiver_id) AND c.user_high = GREATEST(m.sender_id, m.receiver_id)",
+                "INSERT INTO conversation_participants (conversation_id, user_id, unread, last_message_id, last_message_at, last_preview) " +
+                        "SELECT c.id, p.user_id, " +
+                        "(SELECT COUNT(*) FROM messages m WHERE m.conversation_id = c.id AND m.receiver_id = p.user_id AND m.is_read = FALSE), " +
+                        "last.id, coalesce(last.sent_time, c.created_at, now()), left(last.content, " + PREVIEW_LENGTH + ") " +
+                        "FROM conversations c CROSS JOIN LATERAL (VALUES (c.user_low), (c.user_high)) p(user_id) " +
+                        "CROSS JOIN LATERAL (SELECT id, sent_time, content FROM messages m WHERE m.conversation_id = c.id " +
+                        "ORDER BY m.id DESC LIMIT 1) last " +
+                        "ON CONFLICT DO NOTHING");
+    }
+
+    // Loads the stored pass threshold; the at-risk index is built against it, so rows left over from another
+    // threshold (e.g. a save that was interrupted before its rebuild) trigger a rebuild
+    private void syncAtRiskThreshold() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT t.pass_threshold, EXISTS (SELECT 1 FROM at_risk_enrollments r " +
+                    "WHERE r.threshold <> t.pass_threshold) AS stale FROM lms_settings t");
+            if (!rs.next()) return;
+            passThreshold = rs.getDouble("pass_threshold");
+            if (rs.getBoolean("stale")) {
+                rebuildAtRiskIndex(null);
+            }
+        }
+    }
+
+    // Runs the statements in one transaction unless a migration with this id has already been recorded
+    private void runMigration(String id, String... statements) throws SQLException {
+        runMigration(id, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (String statement : statements) {
+                    stmt.addBatch(statement);
+                }
+                stmt.executeBatch();
+            }
+        });
+    }
+
+    // Same as above for migrations that need bound parameters
+    private void runMigration(String id, MigrationStep step) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement record = connection.prepareStatement(
+                "INSERT INTO schema_migrations (id, applied_at) VALUES (?, ?) ON CONFLICT (id) DO NOTHING")) {
+            record.setString(1, id);
+            record.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            if (record.executeUpdate() == 0) {
+                connection.rollback();
+                return;
+            }
+            step.apply(connection);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
     private void createTablesIfNotExist() throws SQLException {
         String createUsersTable = "CREATE TABLE IF NOT EXISTS users (" +
                 "id SERIAL PRIMARY KEY, " +
@@ -200,69 +814,208 @@ public class LearningManagementSystem extends Application {
                 "created_at TIMESTAMP, " +
                 "status VARCHAR(20) DEFAULT 'Pending')";
 
+        // Resumable chunked uploads; a session is matched to a source file by name, size and modification time
+        String createUploadSessionsTable = "CREATE TABLE IF NOT EXISTS upload_sessions (" +
+                "id SERIAL PRIMARY KEY, " +
+                "instructor_id INTEGER REFERENCES users(id), " +
+                "course_id INTEGER REFERENCES courses(id), " +
+                "file_name VARCHAR(255) NOT NULL, " +
+                "file_size BIGINT NOT NULL, " +
+                "source_modified BIGINT NOT NULL, " +
+                "chunk_size INTEGER NOT NULL, " +
+                "bytes_received BIGINT DEFAULT 0, " +
+                "status VARCHAR(20) DEFAULT 'Active', " +
+                "created_at TIMESTAMP)";
+
+        String createUploadChunksTable = "CREATE TABLE IF NOT EXISTS upload_chunks (" +
+                "session_id INTEGER REFERENCES upload_sessions(id) ON DELETE CASCADE, " +
+                "chunk_index INTEGER NOT NULL, " +
+                "checksum BIGINT NOT NULL, " +
+                "PRIMARY KEY (session_id, chunk_index))";
+
+        String createUngradedSubmissionsIndex = "CREATE INDEX IF NOT EXISTS idx_student_assignments_ungraded " +
+                "ON student_assignments (assignment_id, submitted_date, id) WHERE grade IS NULL AND submission IS NOT NULL";
+
+        // Serialized GradeSketch per course ('C') and per assignment ('A') or quiz ('Q')
+        String createGradeSketchesTable = "CREATE TABLE IF NOT EXISTS grade_sketches (" +
+                "course_id INTEGER REFERENCES courses(id) ON DELETE CASCADE, " +
+                "assessment_kind CHAR(1) NOT NULL, " +
+                "assessment_id INTEGER NOT NULL, " +
+                "title VARCHAR(100), " +
+                "sketch BYTEA NOT NULL, " +
+                "computed_at TIMESTAMP, " +
+                "PRIMARY KEY (course_id, assessment_kind, assessment_id))";
+
+        // Enrollments currently below the pass threshold, maintained whenever progress is recomputed
+        String createAtRiskTable = "CREATE TABLE IF NOT EXISTS at_risk_enrollments (" +
+                "enrollment_id INTEGER PRIMARY KEY REFERENCES enrollments(id) ON DELETE CASCADE, " +
+                "course_id INTEGER NOT NULL REFERENCES courses(id), " +
+                "student_id INTEGER NOT NULL REFERENCES users(id), " +
+                "progress INTEGER NOT NULL, " +
+                "threshold DOUBLE PRECISION NOT NULL, " +
+                "flagged_at TIMESTAMP NOT NULL)";
+
+        String createAtRiskIndex = "CREATE INDEX IF NOT EXISTS idx_at_risk_course ON at_risk_enrollments (course_id, progress)";
+
+        String createAssignmentsDeadlineIndex = "CREATE INDEX IF NOT EXISTS idx_assignments_deadline ON assignments (deadline, id)";
+
+        // One row per reminder sent, so a student is never reminded twice about the same assignment
+        String createDeadlineRemindersTable = "CREATE TABLE IF NOT EXISTS deadline_reminders (" +
+                "assignment_id INTEGER REFERENCES assignments(id) ON DELETE CASCADE, " +
+                "student_id INTEGER REFERENCES users(id), " +
+                "sent_at TIMESTAMP NOT NULL, " +
+                "PRIMARY KEY (assignment_id, student_id))";
+
+        // Notification lists, badge counts and the per-user prune cap walk a user's rows newest first;
+        // age-based pruning scans read rows by age
+        String createNotificationsUserIndex = "CREATE INDEX IF NOT EXISTS idx_notifications_user_created " +
+                "ON notifications (user_id, created_at DESC, id DESC)";
+        String createNotificationsUnreadIndex = "CREATE INDEX IF NOT EXISTS idx_notifications_unread " +
+                "ON notifications (user_id) WHERE is_read = FALSE";
+        String createNotificationsReadIndex = "CREATE INDEX IF NOT EXISTS idx_notifications_read_created " +
+                "ON notifications (created_at) WHERE is_read = TRUE";
+
+        // Email queued in the same transaction as its notification and drained by the dispatcher job;
+        // the dedup key makes queuing the same notification twice a no-op
+        String createEmailOutboxTable = "CREATE TABLE IF NOT EXISTS email_outbox (" +
+                "id BIGSERIAL PRIMARY KEY, " +
+                "notification_id INTEGER REFERENCES notifications(id) ON DELETE SET NULL, " +
+                "user_id INTEGER REFERENCES users(id) ON DELETE CASCADE, " +
+                "recipient VARCHAR(100) NOT NULL, " +
+                "subject VARCHAR(200) NOT NULL, " +
+                "body TEXT NOT NULL, " +
+                "dedup_key VARCHAR(200) UNIQUE NOT NULL, " +
+                "status VARCHAR(20) NOT NULL DEFAULT 'Pending', " +
+                "attempts INTEGER NOT NULL DEFAULT 0, " +
+                "next_attempt_at TIMESTAMP NOT NULL DEFAULT now(), " +
+                "claimed_until TIMESTAMP, " +
+                "last_error TEXT, " +
+                "created_at TIMESTAMP NOT NULL DEFAULT now(), " +
+                "sent_at TIMESTAMP)";
+        String createEmailOutboxPendingIndex = "CREATE INDEX IF NOT EXISTS idx_email_outbox_pending " +
+                "ON email_outbox (next_attempt_at) WHERE status = 'Pending'";
+
+        // Unread notifications per user, maintained by triggers installed in applyMigrations()
+        String createNotificationCountersTable = "CREATE TABLE IF NOT EXISTS notification_counters (" +
+                "user_id INTEGER PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE, " +
+                "unread INTEGER NOT NULL DEFAULT 0)";
+
+        // One conversation per course and pair of users (stored lower id first). Each participant row carries
+        // that user's unread count and the last message, so an inbox page is one index range scan
+        String createConversationsTable = "CREATE TABLE IF NOT EXISTS conversations (" +
+                "id SERIAL PRIMARY KEY, " +
+                "course_id INTEGER REFERENCES courses(id) ON DELETE CASCADE, " +
+                "user_low INTEGER REFERENCES users(id) ON DELETE CASCADE, " +
+                "user_high INTEGER REFERENCES users(id) ON DELETE CASCADE, " +
+                "created_at TIMESTAMP, " +
+                "UNIQUE (course_id, user_low, user_high))";
+        String createConversationParticipantsTable = "CREATE TABLE IF NOT EXISTS conversation_participants (" +
+                "conversation_id INTEGER REFERENCES conversations(id) ON DELETE CASCADE, " +
+                "user_id INTEGER REFERENCES users(id) ON DELETE CASCADE, " +
+                "unread INTEGER NOT NULL DEFAULT 0, " +
+                "last_message_id INTEGER, " +
+                "last_message_at TIMESTAMP NOT NULL, " +
+                "last_preview VARCHAR(" + PREVIEW_LENGTH + "), " +
+                "PRIMARY KEY (conversation_id, user_id))";
+        String createConversationParticipantsInboxIndex = "CREATE INDEX IF NOT EXISTS idx_conversation_participants_inbox " +
+                "ON conversation_participants (user_id, last_message_at DESC, conversation_id DESC)";
+
+        // Students waiting for a seat in a full course, promoted in the order they joined
+        String createCourseWaitlistTable = "CREATE TABLE IF NOT EXISTS course_waitlist (" +
+                "id BIGSERIAL PRIMARY KEY, " +
+                "course_id INTEGER NOT NULL REFERENCES courses(id) ON DELETE CASCADE, " +
+                "student_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE, " +
+                "joined_at TIMESTAMP NOT NULL, " +
+                "UNIQUE (course_id, student_id))";
+        String createCourseWaitlistIndex = "CREATE INDEX IF NOT EXISTS idx_course_waitlist_order ON course_waitlist (course_id, id)";
+
+        // A quiz is an ordered set of questions, each with its own options and points; a submission stores one
+        // answer per question, and a closed quiz takes no further attempts
+        String createQuizQuestionsTable = "CREATE TABLE IF NOT EXISTS quiz_questions (" +
+                "id SERIAL PRIMARY KEY, " +
+                "quiz_id INTEGER NOT NULL REFERENCES quizzes(id) ON DELETE CASCADE, " +
+                "position INTEGER NOT NULL, " +
+                "question TEXT NOT NULL, " +
+                "options TEXT[] NOT NULL, " +
+                "correct_option INTEGER NOT NULL, " +
+                "points INTEGER NOT NULL DEFAULT 1, " +
+                "UNIQUE (quiz_id, position))";
+
+        // Settings shared by every client, in a single row; the at-risk index is built against pass_threshold
+        String createSettingsTable = "CREATE TABLE IF NOT EXISTS lms_settings (" +
+                "id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id), " +
+                "pass_threshold DOUBLE PRECISION NOT NULL DEFAULT 70.0)";
+
+        String createSchemaMigrationsTable = "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                "id VARCHAR(100) PRIMARY KEY, " +
+                "applied_at TIMESTAMP)";
+
+        // Sent as one batch so the whole schema check costs a single round trip
         try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createUsersTable);
-            stmt.execute(createCoursesTable);
-            stmt.execute(createEnrollmentsTable);
-            stmt.execute(createMaterialsTable);
-            stmt.execute(createAssignmentsTable);
-            stmt.execute(createStudentAssignmentsTable);
-            stmt.execute(createQuizzesTable);
-            stmt.execute(createQuizSubmissionsTable);
-            stmt.execute(createMessagesTable);
-            stmt.execute(createLogsTable);
-            stmt.execute(createNotificationsTable);
-            stmt.execute(createHelpMessagesTable);
+            stmt.addBatch(createUsersTable);
+            stmt.addBatch(createCoursesTable);
+            stmt.addBatch(createEnrollmentsTable);
+            stmt.addBatch(createMaterialsTable);
+            stmt.addBatch(createAssignmentsTable);
+            stmt.addBatch(createStudentAssignmentsTable);
+            stmt.addBatch(createQuizzesTable);
+            stmt.addBatch(createQuizSubmissionsTable);
+            stmt.addBatch(createMessagesTable);
+            stmt.addBatch(createLogsTable);
+            stmt.addBatch(createNotificationsTable);
+            stmt.addBatch(createHelpMessagesTable);
+            stmt.addBatch(createUploadSessionsTable);
+            stmt.addBatch(createUploadChunksTable);
+            stmt.addBatch(createSchemaMigrationsTable);
+            stmt.addBatch(createSettingsTable);
+            stmt.addBatch(createUngradedSubmissionsIndex);
+            stmt.addBatch(createGradeSketchesTable);
+            stmt.addBatch(createAtRiskTable);
+            stmt.addBatch(createAtRiskIndex);
+            stmt.addBatch(createAssignmentsDeadlineIndex);
+            stmt.addBatch(createDeadlineRemindersTable);
+            stmt.addBatch(createNotificationsUserIndex);
+            stmt.addBatch(createNotificationsUnreadIndex);
+            stmt.addBatch(createNotificationsReadIndex);
+            stmt.addBatch(createEmailOutboxTable);
+            stmt.addBatch(createEmailOutboxPendingIndex);
+            stmt.addBatch(createNotificationCountersTable);
+            stmt.addBatch(createConversationsTable);
+            stmt.addBatch(createConversationParticipantsTable);
+            stmt.addBatch(createConversationParticipantsInboxIndex);
+            stmt.addBatch(createCourseWaitlistTable);
+            stmt.addBatch(createCourseWaitlistIndex);
+            stmt.addBatch(createQuizQuestionsTable);
+            stmt.executeBatch();
         }
     }
 
     private void ensureDefaultAdmin() throws SQLException {
+        // Only creates the admin when it is missing; an existing admin account is left untouched
         String insertAdmin = "INSERT INTO users (username, password, email, role) " +
                 "VALUES ('admin', 'admin123', 'admin@lms.com', 'Admin') " +
                 "ON CONFLICT (username) DO NOTHING";
-        String updateAdmin = "UPDATE users SET password = 'admin123', email = 'admin@lms.com', role = 'Admin' WHERE username = 'admin'";
 
         try (Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(insertAdmin);
-            stmt.executeUpdate(updateAdmin);
+            if (stmt.executeUpdate(insertAdmin) > 0) {
+                logActivity("Default admin user created");
+            }
         }
-        logActivity("Default admin user ensured");
     }
 
     private void loadSampleData() {
+        // Seeds the sample courses only into an empty database, in a single statement
+        String insertCourses = "INSERT INTO courses (title, description, approved) " +
+                "SELECT * FROM (VALUES " +
+                "('Mathematics 101', 'Intro to Algebra', TRUE), " +
+                "('Physics 101', 'Mechanics Basics', TRUE), " +
+                "('Computer Science 101', 'Programming Fundamentals', TRUE)) AS sample(title, description, approved) " +
+                "WHERE NOT EXISTS (SELECT 1 FROM courses)";
         try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM courses");
-            rs.next();
-            if (rs.getInt(1) == 0) {
-                String insertCourses = "INSERT INTO courses (title, description, approved) VALUES " +
-                        "('Mathematics 101', 'Intro to Algebra', TRUE), " +
-                        "('Physics 101', 'Mechanics Basics', TRUE), " +
-                        "('Computer Science 101', 'Programming Fundamentals', TRUE)";
-                stmt.executeUpdate(insertCourses);
-            }
+            stmt.executeUpdate(insertCourses);
         } catch (SQLException e) {
             System.err.println("Error loading sample courses: " + e.getMessage());
         }
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT title FROM courses")) {
-            courses.clear();
-            while (rs.next()) {
-                courses.add(rs.getString("title"));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error fetching courses: " + e.getMessage());
-        }
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT username FROM users WHERE role = 'Student'")) {
-            students.clear();
-            while (rs.next()) {
-                students.add(rs.getString("username"));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error fetching students: " + e.getMessage());
-        }
     }
 
     private void logActivity(String activity) {
@@ -283,9 +1036,7 @@ public class LearningManagementSystem extends Application {
         mainLayout.setAlignment(Pos.TOP_CENTER);
 
         // Background image with overlay
-        ImageView background = new ImageView(loadImage(BACKGROUND_IMAGE_URL));
-        background.setFitWidth(900);
-        background.setFitHeight(700);
+        ImageView background = createImageView(BACKGROUND_IMAGE_URL, 900, 700);
         background.setOpacity(0.3);
 
         VBox contentLayout = new VBox(20);
@@ -296,11 +1047,9 @@ public class LearningManagementSystem extends Application {
         HBox header = new HBox(10);
         header.setAlignment(Pos.CENTER);
         header.setPadding(new Insets(10));
-        header.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2c3e50;" : "-fx-background-color: #4a6a8a;");
+        header.getStyleClass().add("header-bar");
 
-        ImageView logo = new ImageView(loadImage(LOGO_URL));
-        logo.setFitWidth(50);
-        logo.setFitHeight(50);
+        ImageView logo = createImageView(LOGO_URL, 50, 50);
 
         Label headerLabel = new Label("Learning Management System");
         headerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
@@ -310,7 +1059,7 @@ public class LearningManagementSystem extends Application {
 
         Label tagline = new Label("Empowering Education with Seamless Course Management");
         tagline.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
-        tagline.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEGRAY : Color.LIGHTGRAY);
+        tagline.getStyleClass().add("tagline");
 
         VBox aboutBox = createSectionBox(
                 "About Our LMS",
@@ -329,11 +1078,9 @@ public class LearningManagementSystem extends Application {
         buttonPanel.setPadding(new Insets(20));
 
         Button loginButton = new Button("Login");
-        loginButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        loginButton.getStyleClass().add("btn-success");
         loginButton.setEffect(new DropShadow(10, Color.DARKGREEN));
-        ImageView loginIcon = new ImageView(loadImage(USER_ICON_URL));
-        loginIcon.setFitWidth(20);
-        loginIcon.setFitHeight(20);
+        ImageView loginIcon = createImageView(USER_ICON_URL, 20, 20);
         loginButton.setGraphic(loginIcon);
         FadeTransition fade = new FadeTransition(Duration.seconds(2), loginButton);
         fade.setFromValue(1.0);
@@ -342,15 +1089,15 @@ public class LearningManagementSystem extends Application {
         fade.setAutoReverse(true);
         fade.play();
         loginButton.setOnAction(e -> showLoginDialog());
+        loginButton.disableProperty().bind(databaseReady.not());
 
         Button signupButton = new Button("Sign Up");
-        signupButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        signupButton.getStyleClass().add("btn-primary");
         signupButton.setEffect(new DropShadow(10, Color.DARKBLUE));
-        ImageView signupIcon = new ImageView(loadImage(USER_ICON_URL));
-        signupIcon.setFitWidth(20);
-        signupIcon.setFitHeight(20);
+        ImageView signupIcon = createImageView(USER_ICON_URL, 20, 20);
         signupButton.setGraphic(signupIcon);
         signupButton.setOnAction(e -> showSignupDialog());
+        signupButton.disableProperty().bind(databaseReady.not());
 
         buttonPanel.getChildren().addAll(loginButton, signupButton);
 
@@ -358,6 +1105,7 @@ public class LearningManagementSystem extends Application {
         mainLayout.getChildren().addAll(background, contentLayout);
 
         Scene scene = new Scene(mainLayout, 900, 700);
+        applyTheme(scene);
         primaryStage.setScene(scene);
         primaryStage.show();
     }
@@ -365,16 +1113,14 @@ public class LearningManagementSystem extends Application {
     private VBox createSectionBox(String title, String content, String imageUrl) {
         Label titleLabel = new Label(title);
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 18));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         Text contentText = new Text(content);
         contentText.setFont(Font.font("Arial", 14));
         contentText.setWrappingWidth(600);
-        contentText.setFill(currentTheme.equals("Light") ? Color.BLACK : Color.WHITE);
+        contentText.getStyleClass().add("section-text");
 
-        ImageView imageView = new ImageView(loadImage(imageUrl));
-        imageView.setFitWidth(100);
-        imageView.setFitHeight(100);
+        ImageView imageView = createImageView(imageUrl, 100, 100);
 
         HBox contentBox = new HBox(20);
         contentBox.setAlignment(Pos.CENTER_LEFT);
@@ -383,7 +1129,7 @@ public class LearningManagementSystem extends Application {
         VBox sectionBox = new VBox(10);
         sectionBox.setAlignment(Pos.TOP_LEFT);
         sectionBox.setPadding(new Insets(15));
-        sectionBox.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #ffffff; -fx-border-color: #ddd;" : "-fx-background-color: #4a6a8a; -fx-border-color: #666;");
+        sectionBox.getStyleClass().add("section-box");
         sectionBox.getChildren().addAll(titleLabel, contentBox);
 
         return sectionBox;
@@ -601,36 +1347,78 @@ public class LearningManagementSystem extends Application {
     }
 
     private void addNotification(int userId, String content, String type) throws SQLException {
-        String sql = "INSERT INTO notifications (user_id, content, type, created_at) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            stmt.setString(2, content);
-            stmt.setString(3, type);
-            stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+        addNotification(userId, null, content, type);
+    }
+
+    private void addNotification(int userId, Integer courseId, String content, String type) throws SQLException {
+        addNotification(connection, userId, courseId, content, type);
+    }
+
+    private void addNotification(Connection conn, int userId, Integer courseId, String content, String type) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(FOLD_NOTIFICATION_SQL)) {
+            bindNotification(stmt, userId, courseId, content, type);
             stmt.executeUpdate();
         }
     }
 
+    // Folds the notification into the user's latest unread one of the same type and course if that one is
+    // younger than DIGEST_WINDOW_MINUTES, otherwise inserts a new row. The folded row keeps the newest content,
+    // counts the folded notifications and keeps the most recent DIGEST_MAX_DETAILS texts for expansion.
+    // When email notifications are on, the same statement queues the email in email_outbox, so the mail
+    // exists exactly when the notification commits; it is keyed by notification and digest count.
+    private static final String FOLD_NOTIFICATION_SQL = "WITH target AS (SELECT id FROM notifications " +
+            "WHERE user_id = ? AND type = ? AND course_id IS NOT DISTINCT FROM ? AND is_read = FALSE " +
+            "AND created_at > now() - make_interval(mins => ?) ORDER BY created_at DESC LIMIT 1 FOR UPDATE), " +
+            "folded AS (UPDATE notifications n SET digest_count = n.digest_count + 1, " +
+            "details = (array_prepend(?::text, coalesce(n.details, ARRAY[n.content::text])))[1:?], " +
+            "content = ?, created_at = now() FROM target WHERE n.id = target.id RETURNING n.id, n.user_id, n.digest_count), " +
+            "inserted AS (INSERT INTO notifications (user_id, course_id, content, type, created_at, digest_count) " +
+            "SELECT ?, ?, ?, ?, now(), 1 WHERE NOT EXISTS (SELECT 1 FROM folded) RETURNING id, user_id, digest_count), " +
+            "changed AS (SELECT * FROM folded UNION ALL SELECT * FROM inserted) " +
+            "INSERT INTO email_outbox (notification_id, user_id, recipient, subject, body, dedup_key) " +
+            "SELECT c.id, c.user_id, u.email, 'LMS: ' || ?, ?, 'notification:' || c.id || ':' || c.digest_count " +
+            "FROM changed c JOIN users u ON u.id = c.user_id WHERE ?::boolean ON CONFLICT (dedup_key) DO NOTHING";
+
+    private void bindNotification(PreparedStatement stmt, int userId, Integer courseId, String content, String type) throws SQLException {
+        stmt.setInt(1, userId);
+        stmt.setString(2, type);
+        stmt.setObject(3, courseId, Types.INTEGER);
+        stmt.setInt(4, DIGEST_WINDOW_MINUTES);
+        stmt.setString(5, content);
+        stmt.setInt(6, DIGEST_MAX_DETAILS);
+        stmt.setString(7, content);
+        stmt.setInt(8, userId);
+        stmt.setObject(9, courseId, Types.INTEGER);
+        stmt.setString(10, content);
+        stmt.setString(11, type);
+        stmt.setString(12, type);
+        stmt.setString(13, content);
+        stmt.setBoolean(14, emailNotifications);
+    }
+
     private void showMainApplication() {
+        viewRegistry.clear();
         rootLayout = new BorderPane();
-        rootLayout.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        rootLayout.getStyleClass().add("content-pane");
 
         MenuBar menuBar = createMenuBar();
         rootLayout.setTop(menuBar);
 
         HBox statusBar = new HBox(10);
         statusBar.setPadding(new Insets(5));
-        statusBar.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2c3e50;" : "-fx-background-color: #4a6a8a;");
+        statusBar.getStyleClass().add("header-bar");
 
         Label statusLabel = new Label("Logged in as: " + currentUser + " (" + currentRole + ")");
         statusLabel.setTextFill(Color.WHITE);
         Button logoutButton = new Button("Logout");
-        logoutButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white;");
+        logoutButton.getStyleClass().add("btn-danger");
         logoutButton.setEffect(new DropShadow(5, Color.DARKRED));
         logoutButton.setOnAction(e -> {
+            flushReadReceipts();
             logActivity("Logged out");
             currentUser = null;
             currentRole = null;
+            viewRegistry.clear();
             showWelcomePage();
         });
 
@@ -650,9 +1438,62 @@ public class LearningManagementSystem extends Application {
         }
 
         Scene scene = new Scene(rootLayout, 1000, 700);
+        applyTheme(scene);
         primaryStage.setScene(scene);
     }
 
+    private void applyTheme(Scene scene) {
+        String stylesheet = getClass().getResource("themes/" + currentTheme.toLowerCase() + ".css").toExternalForm();
+        scene.getStylesheets().setAll(stylesheet);
+    }
+
+    private void showView(String key, Supplier<Node> factory) {
+        Node view = viewRegistry.get(key);
+        if (view == null) {
+            view = factory.get();
+            viewRegistry.put(key, view);
+        }
+        currentViewKey = key;
+        rootLayout.setCenter(view);
+    }
+
+    private void refreshCurrentView() {
+        if (currentViewKey == null) return;
+        viewRegistry.remove(currentViewKey);
+        switch (currentViewKey) {
+            case "adminPanel":
+                showAdminPanel();
+                break;
+            case "instructorDashboard":
+                showInstructorDashboard();
+                break;
+            case "studentDashboard":
+                showStudentDashboard();
+                break;
+            case "courses":
+                showCourses();
+                break;
+            case "students":
+                showStudents();
+                break;
+            case "reports":
+                showReports();
+                break;
+            case "settings":
+                showSettings();
+                break;
+            case "notifications":
+                showNotifications();
+                break;
+            case "helpMessages":
+                showHelpMessages();
+                break;
+            case "activityLogs":
+                showActivityLogs();
+                break;
+        }
+    }
+
     private MenuBar createMenuBar() {
         MenuBar menuBar = new MenuBar();
 
@@ -678,7 +1519,9 @@ public class LearningManagementSystem extends Application {
         });
         MenuItem coursesItem = new MenuItem("Courses");
         coursesItem.setOnAction(e -> showCourses());
-        viewMenu.getItems().addAll(dashboardItem, coursesItem);
+        MenuItem refreshItem = new MenuItem("Refresh");
+        refreshItem.setOnAction(e -> refreshCurrentView());
+        viewMenu.getItems().addAll(dashboardItem, coursesItem, refreshItem);
 
         if ("Admin".equals(currentRole) || "Instructor".equals(currentRole)) {
             MenuItem studentsItem = new MenuItem("Students");
@@ -765,76 +1608,274 @@ public class LearningManagementSystem extends Application {
     }
 
     private void showHelpMessages() {
+        showView("helpMessages", this::createHelpMessagesView);
+    }
+
+    private VBox createHelpMessagesView() {
         VBox helpPane = new VBox(10);
         helpPane.setPadding(new Insets(20));
-        helpPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        helpPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Help Messages");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
-        TableView<HelpMessage> messageTable = new TableView<>();
-        TableColumn<HelpMessage, String> userCol = new TableColumn<>("User");
-        userCol.setCellValueFactory(cellData -> new SimpleStringProperty(getUsernameById(cellData.getValue().userId)));
-        TableColumn<HelpMessage, String> messageCol = new TableColumn<>("Message");
-        messageCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().message));
-        TableColumn<HelpMessage, String> dateCol = new TableColumn<>("Date");
-        dateCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().createdAt.toString()));
-        TableColumn<HelpMessage, String> statusCol = new TableColumn<>("Status");
-        statusCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().status));
-        messageTable.getColumns().addAll(userCol, messageCol, dateCol, statusCol);
-        messageTable.setItems(FXCollections.observableArrayList(getHelpMessages()));
+        Label infoLabel = new Label("Claimed tickets are reserved for you for " + HELP_LEASE_MINUTES +
+                " minutes; other admins receive different ones.");
+        infoLabel.getStyleClass().add("section-text");
+
+        int adminId = getUserIdByUsername(currentUser);
+        Label statusLabel = new Label();
+        statusLabel.setTextFill(Color.GREEN);
 
+        // Tickets claimed by this admin
+        Button claimButton = new Button("Claim Next " + HELP_CLAIM_BATCH);
+        claimButton.getStyleClass().add("btn-primary");
+        Button releaseButton = new Button("Release My Claims");
+        releaseButton.getStyleClass().add("btn-warning");
         Button resolveButton = new Button("Mark as Resolved");
-        resolveButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        resolveButton.getStyleClass().add("btn-success");
+        TableView<HelpMessage> claimedTable = createHelpMessageTable();
+        claimedTable.setPlaceholder(new Label("Claim a batch to start answering"));
+        claimedTable.setPrefHeight(180);
+
+        // All tickets, filtered by status and paged by keyset on (created_at, id)
+        ComboBox<String> statusFilter = new ComboBox<>();
+        statusFilter.getItems().addAll("Pending", "Resolved", "All");
+        statusFilter.setValue("Pending");
+        Button firstPageButton = new Button("First Page");
+        Button nextPageButton = new Button("Next Page");
+        TableView<HelpMessage> browseTable = createHelpMessageTable();
+        browseTable.setPrefHeight(220);
+
+        TableView<HelpDeskStat> statsTable = new TableView<>();
+        TableColumn<HelpDeskStat, String> adminCol = new TableColumn<>("Admin");
+        adminCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().admin));
+        TableColumn<HelpDeskStat, String> dayCol = new TableColumn<>("Resolved (24h)");
+        dayCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().resolvedLastDay)));
+        TableColumn<HelpDeskStat, String> monthCol = new TableColumn<>("Resolved (30d)");
+        monthCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().resolvedLastMonth)));
+        TableColumn<HelpDeskStat, String> avgCol = new TableColumn<>("Avg. Time to Resolve");
+        avgCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.format("%.0f min", cellData.getValue().averageMinutes)));
+        statsTable.getColumns().addAll(adminCol, dayCol, monthCol, avgCol);
+        statsTable.setPrefHeight(140);
+
+        Runnable loadStats = () -> {
+            try {
+                statsTable.setItems(FXCollections.observableArrayList(getHelpDeskStats()));
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        };
+        HelpMessage[] pageCursor = {null};
+        Runnable loadPage = () -> {
+            try {
+                List<HelpMessage> page = getHelpMessages(statusFilter.getValue(), pageCursor[0]);
+                boolean hasMore = page.size() > HELP_PAGE_SIZE;
+                if (hasMore) page.remove(HELP_PAGE_SIZE);
+                browseTable.setItems(FXCollections.observableArrayList(page));
+                nextPageButton.setDisable(!hasMore);
+                firstPageButton.setDisable(pageCursor[0] == null);
+                if (hasMore) pageCursor[0] = page.get(page.size() - 1);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        };
+        Runnable reloadFirstPage = () -> {
+            pageCursor[0] = null;
+            loadPage.run();
+        };
+        statusFilter.setOnAction(e -> reloadFirstPage.run());
+        firstPageButton.setOnAction(e -> reloadFirstPage.run());
+        nextPageButton.setOnAction(e -> loadPage.run());
+
+        claimButton.setOnAction(e -> {
+            try {
+                List<HelpMessage> claimed = claimHelpMessages(adminId, HELP_CLAIM_BATCH);
+                claimedTable.setItems(FXCollections.observableArrayList(claimed));
+                statusLabel.setText(claimed.isEmpty() ? "No pending help messages are waiting." : "Claimed " + claimed.size() + " help message(s).");
+                statusLabel.setTextFill(Color.GREEN);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        releaseButton.setOnAction(e -> {
+            try {
+                releaseHelpClaims(adminId);
+                claimedTable.getItems().clear();
+                statusLabel.setText("Claims released.");
+                statusLabel.setTextFill(Color.GREEN);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
 
         resolveButton.setOnAction(e -> {
-            HelpMessage selected = messageTable.getSelectionModel().getSelectedItem();
+            HelpMessage selected = claimedTable.getSelectionModel().getSelectedItem();
             if (selected != null) {
                 try {
-                    markHelpMessageResolved(selected.id);
-                    messageTable.setItems(FXCollections.observableArrayList(getHelpMessages()));
+                    boolean resolved = resolveClaimedHelpMessage(selected.id, adminId);
+                    claimedTable.getItems().remove(selected);
+                    if (!resolved) {
+                        statusLabel.setText("Your claim on this message expired and it was taken by another admin.");
+                        statusLabel.setTextFill(Color.RED);
+                        return;
+                    }
                     logActivity("Marked help message as resolved");
+                    statusLabel.setText("Resolved. " + claimedTable.getItems().size() + " left in your batch.");
+                    statusLabel.setTextFill(Color.GREEN);
+                    loadStats.run();
                 } catch (SQLException ex) {
                     showAlert("Error", "Failed to update message status: " + ex.getMessage());
                 }
             }
         });
 
-        helpPane.getChildren().addAll(titleLabel, messageTable, resolveButton);
-        rootLayout.setCenter(helpPane);
+        reloadFirstPage.run();
+        loadStats.run();
+
+        HBox claimPane = new HBox(10, claimButton, releaseButton, resolveButton);
+        claimPane.setAlignment(Pos.CENTER_LEFT);
+        HBox browseBar = new HBox(10, new Label("Status:"), statusFilter, firstPageButton, nextPageButton);
+        browseBar.setAlignment(Pos.CENTER_LEFT);
+        helpPane.getChildren().addAll(titleLabel, infoLabel, claimPane, claimedTable, statusLabel,
+                new Label("All Help Messages"), browseBar, browseTable, new Label("Throughput"), statsTable);
+        return helpPane;
     }
 
-    private List<HelpMessage> getHelpMessages() {
-        List<HelpMessage> messages = new ArrayList<>();
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, user_id, message, created_at, status FROM help_messages ORDER BY created_at DESC")) {
-            while (rs.next()) {
-                messages.add(new HelpMessage(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("message"),
-                        rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getString("status")
-                ));
+    private TableView<HelpMessage> createHelpMessageTable() {
+        TableView<HelpMessage> messageTable = new TableView<>();
+        TableColumn<HelpMessage, String> userCol = new TableColumn<>("User");
+        userCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().username));
+        TableColumn<HelpMessage, String> messageCol = new TableColumn<>("Message");
+        messageCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().message));
+        messageCol.setPrefWidth(350);
+        TableColumn<HelpMessage, String> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().createdAt.toString()));
+        TableColumn<HelpMessage, String> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().status));
+        TableColumn<HelpMessage, String> handlerCol = new TableColumn<>("Handled By");
+        handlerCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().handledBy));
+        messageTable.getColumns().addAll(userCol, messageCol, dateCol, statusCol, handlerCol);
+        return messageTable;
+    }
+
+    private static final String HELP_MESSAGE_COLUMNS = "h.id, h.user_id, u.username, h.message, h.created_at, h.status, " +
+            "(SELECT username FROM users WHERE id = coalesce(h.resolved_by, h.claimed_by)) AS handled_by";
+
+    // One page of tickets with the given status ("All" for any), newest first, starting after the cursor row.
+    // One extra row is fetched to tell whether another page exists.
+    private List<HelpMessage> getHelpMessages(String status, HelpMessage after) throws SQLException {
+        boolean filtered = !"All".equals(status);
+        String sql = "SELECT " + HELP_MESSAGE_COLUMNS + " FROM help_messages h LEFT JOIN users u ON u.id = h.user_id WHERE TRUE " +
+                (filtered ? "AND h.status = ? " : "") +
+                (after != null ? "AND (h.created_at, h.id) < (?, ?) " : "") +
+                "ORDER BY h.created_at DESC, h.id DESC LIMIT ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (filtered) {
+                stmt.setString(index++, status);
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching help messages: " + e.getMessage());
+            if (after != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(after.createdAt));
+                stmt.setInt(index++, after.id);
+            }
+            stmt.setInt(index, HELP_PAGE_SIZE + 1);
+            return readHelpMessages(stmt.executeQuery());
+        }
+    }
+
+    // Claims the oldest pending tickets nobody else holds, keeping this admin's live claims first.
+    // SKIP LOCKED lets concurrent admins claim at the same time without waiting on or receiving the same rows.
+    private List<HelpMessage> claimHelpMessages(int adminId, int limit) throws SQLException {
+        String sql = "WITH claim AS (UPDATE help_messages h SET claimed_by = ?, claim_expires_at = now() + make_interval(mins => ?) " +
+                "FROM (SELECT id FROM help_messages WHERE status = 'Pending' " +
+                "AND (claimed_by IS NULL OR claimed_by = ? OR claim_expires_at < now()) " +
+                "ORDER BY (claimed_by = ?) IS TRUE DESC, created_at, id LIMIT ? FOR UPDATE SKIP LOCKED) pick " +
+                "WHERE h.id = pick.id RETURNING h.*) " +
+                "SELECT " + HELP_MESSAGE_COLUMNS + " FROM claim h LEFT JOIN users u ON u.id = h.user_id ORDER BY h.created_at, h.id";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, adminId);
+            stmt.setInt(2, HELP_LEASE_MINUTES);
+            stmt.setInt(3, adminId);
+            stmt.setInt(4, adminId);
+            stmt.setInt(5, limit);
+            return readHelpMessages(stmt.executeQuery());
+        }
+    }
+
+    private List<HelpMessage> readHelpMessages(ResultSet rs) throws SQLException {
+        List<HelpMessage> messages = new ArrayList<>();
+        while (rs.next()) {
+            messages.add(new HelpMessage(
+                    rs.getInt("id"),
+                    rs.getInt("user_id"),
+                    rs.getString("username"),
+                    rs.getString("message"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getString("status"),
+                    rs.getString("handled_by")
+            ));
         }
         return messages;
     }
 
-    private void markHelpMessageResolved(int id) throws SQLException {
-        String sql = "UPDATE help_messages SET status = 'Resolved' WHERE id = ?";
+    private void releaseHelpClaims(int adminId) throws SQLException {
+        String sql = "UPDATE help_messages SET claimed_by = NULL, claim_expires_at = NULL WHERE claimed_by = ? AND status = 'Pending'";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, id);
+            stmt.setInt(1, adminId);
             stmt.executeUpdate();
         }
     }
 
+    // Resolves a claimed ticket; fails if the claim has expired and been taken over
+    private boolean resolveClaimedHelpMessage(int id, int adminId) throws SQLException {
+        String sql = "UPDATE help_messages SET status = 'Resolved', resolved_by = ?, resolved_at = now(), " +
+                "claimed_by = NULL, claim_expires_at = NULL WHERE id = ? AND claimed_by = ? AND status = 'Pending'";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, adminId);
+            stmt.setInt(2, id);
+            stmt.setInt(3, adminId);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    // Per-admin throughput over the last 30 days, read through the partial index on resolved tickets
+    private List<HelpDeskStat> getHelpDeskStats() throws SQLException {
+        String sql = "SELECT u.username, " +
+                "COUNT(*) FILTER (WHERE h.resolved_at > now() - interval '1 day') AS last_day, COUNT(*) AS last_month, " +
+                "AVG(EXTRACT(EPOCH FROM h.resolved_at - h.created_at)) / 60 AS avg_minutes " +
+                "FROM help_messages h JOIN users u ON u.id = h.resolved_by " +
+                "WHERE h.status = 'Resolved' AND h.resolved_at > now() - interval '30 days' " +
+                "GROUP BY u.username ORDER BY last_day DESC, last_month DESC";
+        List<HelpDeskStat> stats = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                stats.add(new HelpDeskStat(
+                        rs.getString("username"),
+                        rs.getInt("last_day"),
+                        rs.getInt("last_month"),
+                        rs.getDouble("avg_minutes")
+                ));
+            }
+        }
+        return stats;
+    }
+
     private void showAdminPanel() {
+        showView("adminPanel", this::createAdminPanel);
+        logActivity("Accessed admin panel");
+    }
+
+    private TabPane createAdminPanel() {
         TabPane tabPane = new TabPane();
-        tabPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        tabPane.getStyleClass().add("content-pane");
 
         Tab userTab = new Tab("User Management");
         userTab.setClosable(false);
@@ -849,19 +1890,22 @@ public class LearningManagementSystem extends Application {
         notificationsTab.setClosable(false);
         notificationsTab.setContent(createNotificationsTab());
 
-        tabPane.getTabs().addAll(userTab, courseTab, dataTab, notificationsTab);
-        rootLayout.setCenter(tabPane);
-        logActivity("Accessed admin panel");
+        Tab atRiskTab = new Tab("At-Risk Students");
+        atRiskTab.setClosable(false);
+        atRiskTab.setContent(createAtRiskView(getAllCourses().stream().map(course -> course.title).collect(Collectors.toList()), true));
+
+        tabPane.getTabs().addAll(userTab, courseTab, dataTab, atRiskTab, notificationsTab);
+        return tabPane;
     }
 
     private VBox createUserManagementTab() {
         VBox userPane = new VBox(10);
         userPane.setPadding(new Insets(20));
-        userPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        userPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Manage Users");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TableView<User> userTable = new TableView<>();
         TableColumn<User, String> usernameCol = new TableColumn<>("Username");
@@ -898,13 +1942,13 @@ public class LearningManagementSystem extends Application {
         userForm.add(roleCombo, 1, 3);
 
         Button addButton = new Button("Add User");
-        addButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        addButton.getStyleClass().add("btn-success");
         Button updateButton = new Button("Update User");
-        updateButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        updateButton.getStyleClass().add("btn-primary");
         Button deleteButton = new Button("Delete User");
-        deleteButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white;");
+        deleteButton.getStyleClass().add("btn-danger");
         Button resetPasswordButton = new Button("Reset Password");
-        resetPasswordButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #FFC107; -fx-text-fill: white;" : "-fx-background-color: #FFCA28; -fx-text-fill: white;");
+        resetPasswordButton.getStyleClass().add("btn-warning");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -1052,11 +2096,11 @@ public class LearningManagementSystem extends Application {
     private VBox createCourseManagementTab() {
         VBox coursePane = new VBox(10);
         coursePane.setPadding(new Insets(20));
-        coursePane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        coursePane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Manage Courses");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TableView<Course> courseTable = new TableView<>();
         TableColumn<Course, String> titleCol = new TableColumn<>("Title");
@@ -1066,7 +2110,7 @@ public class LearningManagementSystem extends Application {
         TableColumn<Course, String> approvedCol = new TableColumn<>("Approved");
         approvedCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().approved ? "Yes" : "No"));
         TableColumn<Course, String> enrollmentCol = new TableColumn<>("Enrollments");
-        enrollmentCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(getEnrollmentCount(cellData.getValue().id))));
+        enrollmentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().seats()));
         courseTable.getColumns().addAll(titleCol, instructorCol, approvedCol, enrollmentCol);
         courseTable.setItems(FXCollections.observableArrayList(getAllCourses()));
 
@@ -1084,6 +2128,8 @@ public class LearningManagementSystem extends Application {
         instructorCombo.setPromptText("Select Instructor");
         instructorCombo.getItems().addAll(getInstructors());
         CheckBox approvedCheck = new CheckBox("Approved");
+        TextField capacityField = new TextField();
+        capacityField.setPromptText("Leave empty for no limit");
 
         courseForm.add(new Label("Title:"), 0, 0);
         courseForm.add(titleField, 1, 0);
@@ -1093,13 +2139,15 @@ public class LearningManagementSystem extends Application {
         courseForm.add(instructorCombo, 1, 2);
         courseForm.add(new Label("Approved:"), 0, 3);
         courseForm.add(approvedCheck, 1, 3);
+        courseForm.add(new Label("Capacity:"), 0, 4);
+        courseForm.add(capacityField, 1, 4);
 
         Button addButton = new Button("Add Course");
-        addButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        addButton.getStyleClass().add("btn-success");
         Button updateButton = new Button("Update Course");
-        updateButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        updateButton.getStyleClass().add("btn-primary");
         Button deleteButton = new Button("Delete Course");
-        deleteButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white;");
+        deleteButton.getStyleClass().add("btn-danger");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -1111,7 +2159,8 @@ public class LearningManagementSystem extends Application {
                     statusLabel.setTextFill(Color.RED);
                     return;
                 }
-                addCourse(titleField.getText(), descField.getText(), getUserIdByUsername(instructorCombo.getValue()), approvedCheck.isSelected());
+                addCourse(titleField.getText(), descField.getText(), getUserIdByUsername(instructorCombo.getValue()), approvedCheck.isSelected(),
+                        parseCapacity(capacityField.getText()));
                 courseTable.setItems(FXCollections.observableArrayList(getAllCourses()));
                 statusLabel.setText("Course added successfully!");
                 logActivity("Added course: " + titleField.getText());
@@ -1122,6 +2171,10 @@ public class LearningManagementSystem extends Application {
                 descField.clear();
                 instructorCombo.setValue(null);
                 approvedCheck.setSelected(false);
+                capacityField.clear();
+            } catch (NumberFormatException ex) {
+                statusLabel.setText("Capacity must be a positive whole number.");
+                statusLabel.setTextFill(Color.RED);
             } catch (SQLException ex) {
                 statusLabel.setText("Error: " + ex.getMessage());
                 statusLabel.setTextFill(Color.RED);
@@ -1137,13 +2190,22 @@ public class LearningManagementSystem extends Application {
                         statusLabel.setTextFill(Color.RED);
                         return;
                     }
-                    updateCourse(selected.id, titleField.getText(), descField.getText(), getUserIdByUsername(instructorCombo.getValue()), approvedCheck.isSelected());
+                    // Raising the capacity frees seats for waitlisted students
+                    List<Integer> promoted = updateCourse(selected.id, titleField.getText(), descField.getText(),
+                            getUserIdByUsername(instructorCombo.getValue()), approvedCheck.isSelected(), parseCapacity(capacityField.getText()));
+                    for (int studentId : promoted) {
+                        addNotification(studentId, selected.id, "A seat opened up and you were enrolled in course: " + titleField.getText(), "Enrollment");
+                    }
                     courseTable.setItems(FXCollections.observableArrayList(getAllCourses()));
-                    statusLabel.setText("Course updated successfully!");
+                    statusLabel.setText(promoted.isEmpty() ? "Course updated successfully!"
+                            : "Course updated successfully! " + promoted.size() + " waitlisted student(s) enrolled.");
                     logActivity("Updated course: " + titleField.getText());
                     if ("Admin".equals(currentRole)) {
                         addNotification(getUserIdByUsername(currentUser), "Course updated: " + titleField.getText(), "Course");
                     }
+                } catch (NumberFormatException ex) {
+                    statusLabel.setText("Capacity must be a positive whole number.");
+                    statusLabel.setTextFill(Color.RED);
                 } catch (SQLException ex) {
                     statusLabel.setText("Error: " + ex.getMessage());
                     statusLabel.setTextFill(Color.RED);
@@ -1175,6 +2237,7 @@ public class LearningManagementSystem extends Application {
                 descField.setText(newValue.description);
                 instructorCombo.setValue(getUsernameById(newValue.instructorId));
                 approvedCheck.setSelected(newValue.approved);
+                capacityField.setText(newValue.capacity != null ? String.valueOf(newValue.capacity) : "");
             }
         });
 
@@ -1182,23 +2245,13 @@ public class LearningManagementSystem extends Application {
         return coursePane;
     }
 
-    private int getEnrollmentCount(int courseId) {
-        try (PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM enrollments WHERE course_id = ?")) {
-            stmt.setInt(1, courseId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) return rs.getInt(1);
-        } catch (SQLException e) {
-            System.err.println("Error fetching enrollment count: " + e.getMessage());
-        }
-        return 0;
-    }
-
     private List<Course> getAllCourses() {
         List<Course> courses = new ArrayList<>();
         try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, title, description, instructor_id, approved FROM courses")) {
+             ResultSet rs = stmt.executeQuery("SELECT id, title, description, instructor_id, approved, capacity, seats_taken FROM courses")) {
             while (rs.next()) {
-                courses.add(new Course(rs.getInt("id"), rs.getString("title"), rs.getString("description"), rs.getInt("instructor_id"), rs.getBoolean("approved")));
+                courses.add(new Course(rs.getInt("id"), rs.getString("title"), rs.getString("description"), rs.getInt("instructor_id"), rs.getBoolean("approved"),
+                        rs.getObject("capacity") != null ? rs.getInt("capacity") : null, rs.getInt("seats_taken")));
             }
         } catch (SQLException e) {
             System.err.println("Error fetching courses: " + e.getMessage());
@@ -1241,29 +2294,49 @@ public class LearningManagementSystem extends Application {
         return -1;
     }
 
-    private void addCourse(String title, String description, int instructorId, boolean approved) throws SQLException {
-        String sql = "INSERT INTO courses (title, description, instructor_id, approved) VALUES (?, ?, ?, ?)";
+    private void addCourse(String title, String description, int instructorId, boolean approved, Integer capacity) throws SQLException {
+        String sql = "INSERT INTO courses (title, description, instructor_id, approved, capacity) VALUES (?, ?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, title);
             stmt.setString(2, description);
             stmt.setInt(3, instructorId);
             stmt.setBoolean(4, approved);
+            stmt.setObject(5, capacity, Types.INTEGER);
             stmt.executeUpdate();
         }
     }
 
-    private void updateCourse(int id, String title, String description, int instructorId, boolean approved) throws SQLException {
-        String sql = "UPDATE courses SET title = ?, description = ?, instructor_id = ?, approved = ? WHERE id = ?";
+    // Lowering the capacity below the seats taken removes nobody; new students wait until enough seats free up.
+    // Seats freed by a higher capacity go to the waitlist in the same transaction. Returns the promoted students.
+    private List<Integer> updateCourse(int id, String title, String description, int instructorId, boolean approved, Integer capacity) throws SQLException {
+        String sql = "UPDATE courses SET title = ?, description = ?, instructor_id = ?, approved = ?, capacity = ? WHERE id = ?";
+        connection.setAutoCommit(false);
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, title);
             stmt.setString(2, description);
             stmt.setInt(3, instructorId);
             stmt.setBoolean(4, approved);
-            stmt.setInt(5, id);
+            stmt.setObject(5, capacity, Types.INTEGER);
+            stmt.setInt(6, id);
             stmt.executeUpdate();
+            List<Integer> promoted = promoteWaitlisted(id);
+            connection.commit();
+            return promoted;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
         }
     }
 
+    private static Integer parseCapacity(String text) {
+        if (text == null || text.isBlank()) return null;
+        int capacity = Integer.parseInt(text.trim());
+        if (capacity <= 0) throw new NumberFormatException("Capacity must be positive");
+        return capacity;
+    }
+
     private void deleteCourse(int id) throws SQLException {
         String sql = "DELETE FROM courses WHERE id = ?";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -1275,20 +2348,20 @@ public class LearningManagementSystem extends Application {
     private VBox createDataManagementTab() {
         VBox dataPane = new VBox(10);
         dataPane.setPadding(new Insets(20));
-        dataPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        dataPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Data Management");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         Button backupButton = new Button("Backup Database");
-        backupButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        backupButton.getStyleClass().add("btn-success");
         Button restoreButton = new Button("Restore Database");
-        restoreButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        restoreButton.getStyleClass().add("btn-primary");
         Button checkConnButton = new Button("Check Connectivity");
-        checkConnButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #FFC107; -fx-text-fill: white;" : "-fx-background-color: #FFCA28; -fx-text-fill: white;");
+        checkConnButton.getStyleClass().add("btn-warning");
         Button viewLogsButton = new Button("View Activity Logs");
-        viewLogsButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #9C27B0; -fx-text-fill: white;" : "-fx-background-color: #AB47BC; -fx-text-fill: white;");
+        viewLogsButton.getStyleClass().add("btn-accent");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -1361,13 +2434,17 @@ public class LearningManagementSystem extends Application {
     }
 
     private void showActivityLogs() {
+        showView("activityLogs", this::createActivityLogsView);
+    }
+
+    private VBox createActivityLogsView() {
         VBox logPane = new VBox(10);
         logPane.setPadding(new Insets(20));
-        logPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        logPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Activity Logs");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TextArea logArea = new TextArea();
         logArea.setEditable(false);
@@ -1385,27 +2462,28 @@ public class LearningManagementSystem extends Application {
         }
 
         logPane.getChildren().addAll(titleLabel, logArea);
-        rootLayout.setCenter(logPane);
+        return logPane;
     }
 
     private VBox createNotificationsTab() {
         VBox notifPane = new VBox(10);
         notifPane.setPadding(new Insets(20));
-        notifPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        notifPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Notifications");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
-        // Add unread count badge to title
-        int unreadCount = getUnreadNotificationCount();
-        if (unreadCount > 0) {
-            titleLabel.setText(titleLabel.getText() + " (" + unreadCount + " unread)");
-        }
+        // Unread count badge; kept up to date from the rows in place after the first count
+        int[] unreadCount = {getUnreadNotificationCount()};
+        Runnable updateTitle = () -> titleLabel.setText(unreadCount[0] > 0 ? "Notifications (" + unreadCount[0] + " unread)" : "Notifications");
+        updateTitle.run();
 
         TableView<Notification> notifTable = new TableView<>();
         TableColumn<Notification, String> contentCol = new TableColumn<>("Content");
-        contentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().content));
+        contentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().digestCount > 1
+                ? cellData.getValue().content + " (+" + (cellData.getValue().digestCount - 1) + " more)"
+                : cellData.getValue().content));
         TableColumn<Notification, String> typeCol = new TableColumn<>("Type");
         typeCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().type));
         TableColumn<Notification, String> dateCol = new TableColumn<>("Date");
@@ -1416,18 +2494,27 @@ public class LearningManagementSystem extends Application {
         notifTable.setItems(FXCollections.observableArrayList(getNotifications()));
 
         Button markReadButton = new Button("Mark as Read");
-        markReadButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        markReadButton.getStyleClass().add("btn-success");
+        Button markAllReadButton = new Button("Mark All Read");
+        markAllReadButton.getStyleClass().add("btn-success");
         Button clearButton = new Button("Clear All");
-        clearButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white;");
+        clearButton.getStyleClass().add("btn-danger");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
 
+        // Digests are expanded on selection; their folded texts are only loaded then
+        TextArea digestArea = new TextArea();
+        digestArea.setEditable(false);
+        digestArea.setPrefRowCount(4);
+        digestArea.setVisible(false);
+        digestArea.managedProperty().bind(digestArea.visibleProperty());
         notifTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
-            if (newValue != null && !newValue.isRead) {
+            if (newValue == null) return;
+            digestArea.setVisible(newValue.digestCount > 1);
+            if (newValue.digestCount > 1) {
                 try {
-                    markNotificationRead(newValue.id);
-                    notifTable.setItems(FXCollections.observableArrayList(getNotifications()));
+                    digestArea.setText(String.join("\n", getNotificationDetails(newValue.id)));
                 } catch (SQLException ex) {
                     statusLabel.setText("Error: " + ex.getMessage());
                     statusLabel.setTextFill(Color.RED);
@@ -1435,25 +2522,52 @@ public class LearningManagementSystem extends Application {
             }
         });
 
-        markReadButton.setOnAction(e -> {
+        // Selecting a row marks it read at once in the table; the write is coalesced with other receipts
+        notifTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
+            if (newValue != null && !newValue.isRead) {
+                markReadLocally(newValue);
+                unreadCount[0] = Math.max(0, unreadCount[0] - 1);
+                updateTitle.run();
+                notifTable.refresh();
+            }
+        });
+
+        markReadButton.setOnAction(e -> {
             Notification selected = notifTable.getSelectionModel().getSelectedItem();
             if (selected != null) {
-                try {
-                    markNotificationRead(selected.id);
-                    notifTable.setItems(FXCollections.observableArrayList(getNotifications()));
-                    statusLabel.setText("Notification marked as read!");
-                    logActivity("Marked notification as read: " + selected.content);
-                } catch (SQLException ex) {
-                    statusLabel.setText("Error: " + ex.getMessage());
-                    statusLabel.setTextFill(Color.RED);
+                if (!selected.isRead) {
+                    markReadLocally(selected);
+                    unreadCount[0] = Math.max(0, unreadCount[0] - 1);
+                    updateTitle.run();
+                    notifTable.refresh();
                 }
+                statusLabel.setText("Notification marked as read!");
+                logActivity("Marked notification as read: " + selected.content);
+            }
+        });
+
+        markAllReadButton.setOnAction(e -> {
+            try {
+                markAllNotificationsRead();
+                notifTable.getItems().forEach(notification -> notification.isRead = true);
+                unreadCount[0] = 0;
+                updateTitle.run();
+                notifTable.refresh();
+                statusLabel.setText("All notifications marked as read!");
+                statusLabel.setTextFill(Color.GREEN);
+                logActivity("Marked all notifications as read");
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
             }
         });
 
         clearButton.setOnAction(e -> {
             try {
                 clearNotifications();
-                notifTable.setItems(FXCollections.observableArrayList(getNotifications()));
+                notifTable.getItems().clear();
+                unreadCount[0] = 0;
+                updateTitle.run();
                 statusLabel.setText("All notifications cleared!");
                 logActivity("Cleared all notifications");
             } catch (SQLException ex) {
@@ -1462,13 +2576,13 @@ public class LearningManagementSystem extends Application {
             }
         });
 
-        notifPane.getChildren().addAll(titleLabel, notifTable, new HBox(10, markReadButton, clearButton), statusLabel);
+        notifPane.getChildren().addAll(titleLabel, notifTable, digestArea, new HBox(10, markReadButton, markAllReadButton, clearButton), statusLabel);
         return notifPane;
     }
 
     private int getUnreadNotificationCount() {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = FALSE")) {
+                "SELECT unread FROM notification_counters WHERE user_id = ?")) {
             stmt.setInt(1, getUserIdByUsername(currentUser));
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -1483,8 +2597,9 @@ public class LearningManagementSystem extends Application {
     private List<Notification> getNotifications() {
         List<Notification> notifications = new ArrayList<>();
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT id, content, type, created_at, is_read FROM notifications WHERE user_id = ? ORDER BY created_at DESC")) {
+                "SELECT id, content, type, created_at, is_read, digest_count FROM notifications WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT ?")) {
             stmt.setInt(1, getUserIdByUsername(currentUser));
+            stmt.setInt(2, NOTIFICATION_LIST_LIMIT);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 notifications.add(new Notification(
@@ -1492,7 +2607,8 @@ public class LearningManagementSystem extends Application {
                         rs.getString("content"),
                         rs.getString("type"),
                         rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getBoolean("is_read")
+                        rs.getBoolean("is_read"),
+                        rs.getInt("digest_count")
                 ));
             }
         } catch (SQLException e) {
@@ -1501,12 +2617,50 @@ public class LearningManagementSystem extends Application {
         return notifications;
     }
 
-    private void markNotificationRead(int id) throws SQLException {
-        String sql = "UPDATE notifications SET is_read = TRUE WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+    private List<String> getNotificationDetails(int id) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT coalesce(details, ARRAY[content::text]) AS details, digest_count FROM notifications WHERE id = ?")) {
             stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) return List.of();
+            List<String> details = new ArrayList<>(Arrays.asList((String[]) rs.getArray("details").getArray()));
+            int omitted = rs.getInt("digest_count") - details.size();
+            if (omitted > 0) details.add("... and " + omitted + " earlier");
+            return details;
+        }
+    }
+
+    // Shows the notification as read and queues the write; the first queued id starts the flush delay
+    private void markReadLocally(Notification notification) {
+        notification.isRead = true;
+        pendingReadIds.add(notification.id);
+        if (readReceiptFlush.getStatus() != Animation.Status.RUNNING) {
+            readReceiptFlush.setOnFinished(e -> flushReadReceipts());
+            readReceiptFlush.playFromStart();
+        }
+    }
+
+    // Writes all queued read receipts in one statement; on failure they stay queued for the next flush
+    private void flushReadReceipts() {
+        readReceiptFlush.stop();
+        if (pendingReadIds.isEmpty() || connection == null) return;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE notifications SET is_read = TRUE WHERE id = ANY(?) AND is_read = FALSE")) {
+            stmt.setArray(1, connection.createArrayOf("integer", pendingReadIds.toArray()));
+            stmt.executeUpdate();
+            pendingReadIds.clear();
+        } catch (SQLException e) {
+            System.err.println("Error saving read notifications: " + e.getMessage());
+        }
+    }
+
+    private void markAllNotificationsRead() throws SQLException {
+        String sql = "UPDATE notifications SET is_read = TRUE WHERE user_id = ? AND is_read = FALSE";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, getUserIdByUsername(currentUser));
             stmt.executeUpdate();
         }
+        pendingReadIds.clear();
     }
 
     private void clearNotifications() throws SQLException {
@@ -1515,11 +2669,17 @@ public class LearningManagementSystem extends Application {
             stmt.setInt(1, getUserIdByUsername(currentUser));
             stmt.executeUpdate();
         }
+        pendingReadIds.clear();
     }
 
     private void showReports() {
+        showView("reports", this::createReportsView);
+        logActivity("Viewed reports");
+    }
+
+    private TabPane createReportsView() {
         TabPane reportPane = new TabPane();
-        reportPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        reportPane.getStyleClass().add("content-pane");
 
         Tab userReportTab = new Tab("User Distribution");
         userReportTab.setClosable(false);
@@ -1530,20 +2690,81 @@ public class LearningManagementSystem extends Application {
         Tab progressReportTab = new Tab("Student Progress");
         progressReportTab.setClosable(false);
         progressReportTab.setContent(createProgressReport());
+        Tab distributionReportTab = new Tab("Grade Distribution");
+        distributionReportTab.setClosable(false);
+        distributionReportTab.setContent(createGradeDistributionReport());
+        Tab enrollmentMetricsTab = new Tab("Enrollment Metrics");
+        enrollmentMetricsTab.setClosable(false);
+        enrollmentMetricsTab.setContent(createEnrollmentMetricsReport());
+
+        reportPane.getTabs().addAll(userReportTab, courseReportTab, progressReportTab, distributionReportTab, enrollmentMetricsTab);
+        return reportPane;
+    }
 
-        reportPane.getTabs().addAll(userReportTab, courseReportTab, progressReportTab);
-        rootLayout.setCenter(reportPane);
-        logActivity("Viewed reports");
+    private VBox createEnrollmentMetricsReport() {
+        VBox reportPane = new VBox(10);
+        reportPane.setPadding(new Insets(20));
+        reportPane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Enrollment Metrics");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        Label metricsLabel = new Label();
+        metricsLabel.getStyleClass().add("section-text");
+
+        TableView<Course> seatTable = new TableView<>();
+        TableColumn<Course, String> courseCol = new TableColumn<>("Course");
+        courseCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
+        TableColumn<Course, String> seatsCol = new TableColumn<>("Seats");
+        seatsCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().seats()));
+        TableColumn<Course, String> waitlistCol = new TableColumn<>("Waitlisted");
+        waitlistCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().waitlisted)));
+        seatTable.getColumns().addAll(courseCol, seatsCol, waitlistCol);
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.getStyleClass().add("btn-primary");
+        Runnable refresh = () -> {
+            metricsLabel.setText(enrollmentMetrics.summary());
+            try {
+                seatTable.setItems(FXCollections.observableArrayList(getCourseSeatUsage()));
+            } catch (SQLException ex) {
+                showAlert("Error", "Failed to load seat usage: " + ex.getMessage());
+            }
+        };
+        refreshButton.setOnAction(e -> refresh.run());
+        refresh.run();
+
+        reportPane.getChildren().addAll(titleLabel, metricsLabel, refreshButton, seatTable);
+        return reportPane;
+    }
+
+    // Courses with a seat limit, fullest first, with the length of their waitlists
+    private List<Course> getCourseSeatUsage() throws SQLException {
+        String sql = "SELECT c.id, c.title, c.description, c.instructor_id, c.approved, c.capacity, c.seats_taken, " +
+                "(SELECT COUNT(*) FROM course_waitlist w WHERE w.course_id = c.id) AS waitlisted " +
+                "FROM courses c WHERE c.capacity IS NOT NULL ORDER BY c.seats_taken::float / c.capacity DESC, waitlisted DESC";
+        List<Course> courses = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Course course = new Course(rs.getInt("id"), rs.getString("title"), rs.getString("description"), rs.getInt("instructor_id"),
+                        rs.getBoolean("approved"), rs.getInt("capacity"), rs.getInt("seats_taken"));
+                course.waitlisted = rs.getInt("waitlisted");
+                courses.add(course);
+            }
+        }
+        return courses;
     }
 
     private VBox createUserReport() {
         VBox reportPane = new VBox(10);
         reportPane.setPadding(new Insets(20));
-        reportPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        reportPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("User Distribution Report");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         PieChart chart = new PieChart();
         chart.setTitle("Users by Role");
@@ -1564,11 +2785,11 @@ public class LearningManagementSystem extends Application {
     private VBox createCourseReport() {
         VBox reportPane = new VBox(10);
         reportPane.setPadding(new Insets(20));
-        reportPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        reportPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Course Enrollment Report");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         CategoryAxis xAxis = new CategoryAxis();
         NumberAxis yAxis = new NumberAxis();
@@ -1596,11 +2817,11 @@ public class LearningManagementSystem extends Application {
     private VBox createProgressReport() {
         VBox reportPane = new VBox(10);
         reportPane.setPadding(new Insets(20));
-        reportPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        reportPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Student Progress Report");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         CategoryAxis xAxis = new CategoryAxis();
         NumberAxis yAxis = new NumberAxis();
@@ -1625,14 +2846,355 @@ public class LearningManagementSystem extends Application {
         return reportPane;
     }
 
+    private VBox createGradeDistributionReport() {
+        VBox reportPane = new VBox(10);
+        reportPane.setPadding(new Insets(20));
+        reportPane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Grade Distribution Report");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        String allCourses = "All Courses";
+        List<Course> courses = getAllCourses();
+        ComboBox<String> scopeCombo = new ComboBox<>();
+        scopeCombo.getItems().add(allCourses);
+        courses.forEach(course -> scopeCombo.getItems().add(course.title));
+        scopeCombo.setValue(allCourses);
+        Button recomputeButton = new Button("Recompute");
+        recomputeButton.getStyleClass().add("btn-warning");
+        HBox scopePane = new HBox(10, scopeCombo, recomputeButton);
+        scopePane.setAlignment(Pos.CENTER_LEFT);
+
+        TableView<AssessmentSketch> statsTable = new TableView<>();
+        TableColumn<AssessmentSketch, String> nameCol = new TableColumn<>("Assessment");
+        nameCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
+        nameCol.setPrefWidth(220);
+        statsTable.getColumns().add(nameCol);
+        statsTable.getColumns().add(statColumn("N", sketch -> String.valueOf(sketch.count())));
+        statsTable.getColumns().add(statColumn("Mean", sketch -> formatStat(sketch.mean())));
+        statsTable.getColumns().add(statColumn("Std Dev", sketch -> formatStat(sketch.standardDeviation())));
+        statsTable.getColumns().add(statColumn("P10", sketch -> formatStat(sketch.quantile(0.10))));
+        statsTable.getColumns().add(statColumn("Median", sketch -> formatStat(sketch.quantile(0.50))));
+        statsTable.getColumns().add(statColumn("P90", sketch -> formatStat(sketch.quantile(0.90))));
+
+        CategoryAxis xAxis = new CategoryAxis();
+        NumberAxis yAxis = new NumberAxis();
+        BarChart<String, Number> chart = new BarChart<>(xAxis, yAxis);
+        chart.setTitle("Grades (%)");
+        chart.setLegendVisible(false);
+        chart.setAnimated(false);
+        xAxis.setLabel("Grade Range");
+        yAxis.setLabel("Number of Grades");
+
+        Label statusLabel = new Label();
+        statusLabel.getStyleClass().add("section-text");
+
+        Runnable render = () -> {
+            try {
+                List<AssessmentSketch> rows = new ArrayList<>();
+                GradeSketch overall;
+                if (allCourses.equals(scopeCombo.getValue())) {
+                    // Institution-wide figures are merged from the per-course sketches; no raw grades are read
+                    Map<Integer, CourseGradeStats> stats = getCourseGradeStats(courses.stream().map(c -> c.id).collect(Collectors.toList()));
+                    overall = new GradeSketch();
+                    for (Course course : courses) {
+                        CourseGradeStats courseStats = stats.get(course.id);
+                        overall.merge(courseStats.overall);
+                        rows.add(new AssessmentSketch('C', course.id, course.title, courseStats.overall));
+                    }
+                } else {
+                    int courseId = getCourseIdByTitle(scopeCombo.getValue());
+                    CourseGradeStats courseStats = getCourseGradeStats(List.of(courseId)).get(courseId);
+                    overall = courseStats.overall;
+                    rows.addAll(courseStats.assessments);
+                }
+                rows.add(0, new AssessmentSketch('C', 0, "Overall", overall));
+                statsTable.setItems(FXCollections.observableArrayList(rows));
+
+                XYChart.Series<String, Number> series = new XYChart.Series<>();
+                long[] histogram = overall.histogram();
+                int bucketWidth = 100 / GradeSketch.HISTOGRAM_BUCKETS;
+                for (int i = 0; i < histogram.length; i++) {
+                    int low = i * bucketWidth;
+                    String label = i == histogram.length - 1 ? low + "-100" : low + "-" + (low + bucketWidth - 1);
+                    series.getData().add(new XYChart.Data<>(label, histogram[i]));
+                }
+                chart.getData().setAll(List.of(series));
+                statusLabel.setText(overall.count() + " grades summarised");
+            } catch (SQLException ex) {
+                showAlert("Error", "Failed to generate grade distribution: " + ex.getMessage());
+            }
+        };
+
+        scopeCombo.setOnAction(e -> render.run());
+        recomputeButton.setOnAction(e -> {
+            gradeStatsCache.clear();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DELETE FROM grade_sketches");
+            } catch (SQLException ex) {
+                showAlert("Error", "Failed to clear grade statistics: " + ex.getMessage());
+            }
+            render.run();
+        });
+        render.run();
+
+        reportPane.getChildren().addAll(titleLabel, scopePane, statsTable, chart, statusLabel);
+        return reportPane;
+    }
+
+    private static TableColumn<AssessmentSketch, String> statColumn(String name, Function<GradeSketch, String> value) {
+        TableColumn<AssessmentSketch, String> column = new TableColumn<>(name);
+        column.setCellValueFactory(cellData -> new SimpleStringProperty(value.apply(cellData.getValue().sketch)));
+        return column;
+    }
+
+    private static String formatStat(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.1f", value);
+    }
+
+    // Returns grade statistics for the courses, from memory, then from grade_sketches, and only computing
+    // from raw grades for courses that have neither. Any client may invalidate or recompute a course's sketches,
+    // so a cached entry is only used while its computed_at still matches the course row in grade_sketches;
+    // that check reads one primary-key row per course and no sketch bytes.
+    private Map<Integer, CourseGradeStats> getCourseGradeStats(List<Integer> courseIds) throws SQLException {
+        Map<Integer, Timestamp> stored = new HashMap<>();
+        String sql = "SELECT course_id, computed_at FROM grade_sketches " +
+                "WHERE course_id = ANY(?) AND assessment_kind = 'C' AND assessment_id = 0";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setArray(1, connection.createArrayOf("integer", courseIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                stored.put(rs.getInt("course_id"), rs.getTimestamp("computed_at"));
+            }
+        }
+
+        Map<Integer, CourseGradeStats> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int courseId : courseIds) {
+            CourseGradeStats cached = gradeStatsCache.get(courseId);
+            if (cached != null && stored.containsKey(courseId) && Objects.equals(cached.computedAt, stored.get(courseId))) {
+                result.put(courseId, cached);
+            } else {
+                gradeStatsCache.remove(courseId);
+                missing.add(courseId);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        Map<Integer, CourseGradeStats> loaded = loadGradeSketches(missing);
+        List<Integer> uncomputed = missing.stream().filter(id -> !loaded.containsKey(id)).collect(Collectors.toList());
+        if (!uncomputed.isEmpty()) {
+            loaded.putAll(computeGradeSketches(uncomputed));
+        }
+        gradeStatsCache.putAll(loaded);
+        result.putAll(loaded);
+        return result;
+    }
+
+    private Map<Integer, CourseGradeStats> loadGradeSketches(List<Integer> courseIds) throws SQLException {
+        Map<Integer, CourseGradeStats> stats = new HashMap<>();
+        String sql = "SELECT course_id, assessment_kind, assessment_id, title, sketch, computed_at FROM grade_sketches " +
+                "WHERE course_id = ANY(?) ORDER BY course_id, assessment_kind, assessment_id";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setArray(1, connection.createArrayOf("integer", courseIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                CourseGradeStats courseStats = stats.computeIfAbsent(rs.getInt("course_id"), id -> new CourseGradeStats());
+                char kind = rs.getString("assessment_kind").charAt(0);
+                GradeSketch sketch = GradeSketch.fromBytes(rs.getBytes("sketch"));
+                if (kind == 'C') {
+                    courseStats.overall = sketch;
+                    courseStats.computedAt = rs.getTimestamp("computed_at");
+                } else {
+                    courseStats.assessments.add(new AssessmentSketch(kind, rs.getInt("assessment_id"), rs.getString("title"), sketch));
+                }
+            }
+        }
+        return stats;
+    }
+
+    // Builds the sketches for the courses in one streaming pass over their raw grades. A separate connection
+    // with autocommit off lets the driver fetch the rows with a cursor instead of buffering the whole result.
+    private Map<Integer, CourseGradeStats> computeGradeSketches(List<Integer> courseIds) throws SQLException {
+        Map<Integer, CourseGradeStats> stats = new HashMap<>();
+        Map<String, AssessmentSketch> assessments = new HashMap<>();
+        for (int courseId : courseIds) {
+            stats.put(courseId, new CourseGradeStats());
+        }
+
+        try (Connection statsConnection = openConnection()) {
+            statsConnection.setAutoCommit(false);
+            Array courseArray = statsConnection.createArrayOf("integer", courseIds.toArray());
+
+            String titlesSql = "SELECT course_id, 'A' AS kind, id, title FROM assignments WHERE course_id = ANY(?) " +
+                    "UNION ALL SELECT course_id, 'Q', id, title FROM quizzes WHERE course_id = ANY(?) ORDER BY kind, id";
+            try (PreparedStatement stmt = statsConnection.prepareStatement(titlesSql)) {
+                stmt.setArray(1, courseArray);
+                stmt.setArray(2, courseArray);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    char kind = rs.getString("kind").charAt(0);
+                    AssessmentSketch assessment = new AssessmentSketch(kind, rs.getInt("id"), rs.getString("title"), new GradeSketch());
+                    assessments.put(kind + "#" + assessment.id, assessment);
+                    stats.get(rs.getInt("course_id")).assessments.add(assessment);
+                }
+            }
+
+            // Quiz scores are converted to percentages so they share the 0-100 scale with assignment grades
+            String gradesSql = "SELECT a.course_id, 'A' AS kind, a.id, sa.grade::float8 AS pct " +
+                    "FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
+                    "WHERE a.course_id = ANY(?) AND sa.grade IS NOT NULL " +
+                    "UNION ALL SELECT course_id, 'Q', quiz_id, score * 100.0 / NULLIF(total_points, 0) " +
+                    "FROM quiz_effective_scores WHERE course_id = ANY(?)";
+            try (PreparedStatement stmt = statsConnection.prepareStatement(gradesSql)) {
+                stmt.setFetchSize(5000);
+                stmt.setArray(1, courseArray);
+                stmt.setArray(2, courseArray);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    double percentage = rs.getDouble("pct");
+                    if (rs.wasNull()) continue;
+                    stats.get(rs.getInt("course_id")).overall.add(percentage);
+                    AssessmentSketch assessment = assessments.get(rs.getString("kind") + "#" + rs.getInt("id"));
+                    if (assessment != null) assessment.sketch.add(percentage);
+                }
+            }
+
+            String upsertSql = "INSERT INTO grade_sketches (course_id, assessment_kind, assessment_id, title, sketch, computed_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (course_id, assessment_kind, assessment_id) " +
+                    "DO UPDATE SET title = EXCLUDED.title, sketch = EXCLUDED.sketch, computed_at = EXCLUDED.computed_at";
+            try (PreparedStatement stmt = statsConnection.prepareStatement(upsertSql)) {
+                // Truncated to the column's precision so the cached copy compares equal to what is read back
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+                for (Map.Entry<Integer, CourseGradeStats> entry : stats.entrySet()) {
+                    entry.getValue().computedAt = now;
+                    List<AssessmentSketch> rows = new ArrayList<>(entry.getValue().assessments);
+                    rows.add(new AssessmentSketch('C', 0, null, entry.getValue().overall));
+                    for (AssessmentSketch row : rows) {
+                        stmt.setInt(1, entry.getKey());
+                        stmt.setString(2, String.valueOf(row.kind));
+                        stmt.setInt(3, row.id);
+                        stmt.setString(4, row.title);
+                        stmt.setBytes(5, row.sketch.toBytes());
+                        stmt.setTimestamp(6, now);
+                        stmt.addBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            statsConnection.commit();
+        }
+        return stats;
+    }
+
+    // Stores the new pass threshold, when one is given, and re-evaluates every enrollment against the stored
+    // value in the same transaction. The settings row stays locked until the rebuild commits, and progress
+    // updates read it FOR SHARE, so none of them can write rows at the old threshold in between.
+    private void rebuildAtRiskIndex(Double newThreshold) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement lock = connection.prepareStatement(
+                "UPDATE lms_settings SET pass_threshold = coalesce(?, pass_threshold) RETURNING pass_threshold");
+             Statement rebuild = connection.createStatement()) {
+            lock.setObject(1, newThreshold, Types.DOUBLE);
+            ResultSet rs = lock.executeQuery();
+            if (rs.next()) {
+                passThreshold = rs.getDouble("pass_threshold");
+            }
+            rebuild.executeUpdate("DELETE FROM at_risk_enrollments");
+            rebuild.executeUpdate(AT_RISK_REBUILD_SQL);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // At-risk enrollments of one course, or of every course when courseId is null, lowest progress first
+    private List<AtRiskEnrollment> getAtRiskEnrollments(Integer courseId) throws SQLException {
+        List<AtRiskEnrollment> enrollments = new ArrayList<>();
+        String sql = "SELECT c.title, u.username, r.progress, r.flagged_at FROM at_risk_enrollments r " +
+                "JOIN courses c ON r.course_id = c.id JOIN users u ON r.student_id = u.id " +
+                (courseId != null ? "WHERE r.course_id = ? ORDER BY r.progress, u.username" : "ORDER BY c.title, r.progress, u.username");
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            if (courseId != null) stmt.setInt(1, courseId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                enrollments.add(new AtRiskEnrollment(
+                        rs.getString("title"),
+                        rs.getString("username"),
+                        rs.getInt("progress"),
+                        rs.getTimestamp("flagged_at").toLocalDateTime()
+                ));
+            }
+        }
+        return enrollments;
+    }
+
+    private VBox createAtRiskView(List<String> courseTitles, boolean allCoursesOption) {
+        VBox atRiskPane = new VBox(10);
+        atRiskPane.setPadding(new Insets(20));
+        atRiskPane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("At-Risk Students");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        String allCourses = "All Courses";
+        ComboBox<String> courseCombo = new ComboBox<>();
+        if (allCoursesOption) courseCombo.getItems().add(allCourses);
+        courseCombo.getItems().addAll(courseTitles);
+        courseCombo.setPromptText("Select Course");
+
+        TableView<AtRiskEnrollment> atRiskTable = new TableView<>();
+        TableColumn<AtRiskEnrollment, String> courseCol = new TableColumn<>("Course");
+        courseCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().courseTitle));
+        TableColumn<AtRiskEnrollment, String> studentCol = new TableColumn<>("Student");
+        studentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().student));
+        TableColumn<AtRiskEnrollment, String> progressCol = new TableColumn<>("Progress");
+        progressCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().progress + "%"));
+        TableColumn<AtRiskEnrollment, String> flaggedCol = new TableColumn<>("Below Threshold Since");
+        flaggedCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().flaggedAt.toString()));
+        atRiskTable.getColumns().addAll(courseCol, studentCol, progressCol, flaggedCol);
+        atRiskTable.setPlaceholder(new Label("No students below the " + passThreshold + "% pass threshold"));
+
+        courseCombo.setOnAction(e -> {
+            if (courseCombo.getValue() == null) return;
+            try {
+                Integer courseId = allCourses.equals(courseCombo.getValue()) ? null : getCourseIdByTitle(courseCombo.getValue());
+                atRiskTable.setItems(FXCollections.observableArrayList(getAtRiskEnrollments(courseId)));
+            } catch (SQLException ex) {
+                showAlert("Error", "Failed to load at-risk students: " + ex.getMessage());
+            }
+        });
+
+        atRiskPane.getChildren().addAll(titleLabel, courseCombo, atRiskTable);
+        return atRiskPane;
+    }
+
+    private void invalidateGradeStats(Connection conn, int courseId) throws SQLException {
+        gradeStatsCache.remove(courseId);
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM grade_sketches WHERE course_id = ?")) {
+            stmt.setInt(1, courseId);
+            stmt.executeUpdate();
+        }
+    }
+
     private void showSettings() {
+        showView("settings", this::createSettingsView);
+    }
+
+    private VBox createSettingsView() {
         VBox settingsPane = new VBox(10);
         settingsPane.setPadding(new Insets(20));
-        settingsPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        settingsPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("System Settings");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         ComboBox<String> themeCombo = new ComboBox<>();
         themeCombo.getItems().addAll("Light", "Dark");
@@ -1651,19 +3213,38 @@ public class LearningManagementSystem extends Application {
         backupScheduleCombo.getItems().addAll("Daily", "Weekly", "Monthly");
         backupScheduleCombo.setValue(backupSchedule);
 
+        TextField retentionField = new TextField(String.valueOf(notificationRetentionDays));
+        retentionField.setPromptText("Days to keep read notifications");
+        TextField perUserCapField = new TextField(String.valueOf(notificationsPerUserCap));
+        perUserCapField.setPromptText("Notifications kept per user");
+
         Button saveButton = new Button("Save Settings");
-        saveButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        saveButton.getStyleClass().add("btn-success");
 
         saveButton.setOnAction(e -> {
             try {
+                boolean themeChanged = !themeCombo.getValue().equals(currentTheme);
                 currentTheme = themeCombo.getValue();
-                passThreshold = Double.parseDouble(passThresholdField.getText());
+                double newThreshold = Double.parseDouble(passThresholdField.getText());
+                if (newThreshold != passThreshold) {
+                    rebuildAtRiskIndex(newThreshold);
+                }
                 LocalDate.parse(deadlineField.getText());
                 emailNotifications = notificationCheck.isSelected();
                 backupSchedule = backupScheduleCombo.getValue();
+                int retentionDays = Integer.parseInt(retentionField.getText());
+                int perUserCap = Integer.parseInt(perUserCapField.getText());
+                if (retentionDays < 1 || perUserCap < 1) {
+                    throw new IllegalArgumentException("retention and per-user limit must be positive");
+                }
+                notificationRetentionDays = retentionDays;
+                notificationsPerUserCap = perUserCap;
                 showAlert("Success", "Settings saved!");
-                logActivity("Updated settings: theme=" + currentTheme + ", threshold=" + passThreshold + ", deadline=" + deadlineField.getText() + ", notifications=" + emailNotifications + ", backup=" + backupSchedule);
-                showMainApplication();
+                logActivity("Updated settings: theme=" + currentTheme + ", threshold=" + passThreshold + ", deadline=" + deadlineField.getText() + ", notifications=" + emailNotifications + ", backup=" + backupSchedule
+                        + ", retention=" + notificationRetentionDays + "d, cap=" + notificationsPerUserCap);
+                if (themeChanged) {
+                    applyTheme(primaryStage.getScene());
+                }
             } catch (Exception ex) {
                 showAlert("Error", "Invalid input: " + ex.getMessage());
             }
@@ -1676,20 +3257,26 @@ public class LearningManagementSystem extends Application {
                 new HBox(10, new Label("Submission Deadline:"), deadlineField),
                 new HBox(10, new Label("Notifications:"), notificationCheck),
                 new HBox(10, new Label("Backup Schedule:"), backupScheduleCombo),
+                new HBox(10, new Label("Keep Read Notifications (days):"), retentionField),
+                new HBox(10, new Label("Notifications Kept per User:"), perUserCapField),
                 saveButton
         );
-        rootLayout.setCenter(settingsPane);
+        return settingsPane;
     }
 
     private void showNotifications() {
-        VBox notificationsPane = createNotificationsTab();
-        rootLayout.setCenter(notificationsPane);
+        showView("notifications", this::createNotificationsTab);
         logActivity("Viewed notifications");
     }
 
     private void showInstructorDashboard() {
+        showView("instructorDashboard", this::createInstructorDashboard);
+        logActivity("Accessed instructor dashboard");
+    }
+
+    private TabPane createInstructorDashboard() {
         TabPane tabPane = new TabPane();
-        tabPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        tabPane.getStyleClass().add("content-pane");
 
         Tab overviewTab = new Tab("Overview");
         overviewTab.setClosable(false);
@@ -1700,29 +3287,41 @@ public class LearningManagementSystem extends Application {
         Tab gradingTab = new Tab("Grading");
         gradingTab.setClosable(false);
         gradingTab.setContent(createInstructorGradingTab());
+        Tab gradebookTab = new Tab("Gradebook");
+        gradebookTab.setClosable(false);
+        gradebookTab.setContent(createGradebookTab());
+        Tab queueTab = new Tab("Grading Queue");
+        queueTab.setClosable(false);
+        queueTab.setContent(createGradingQueueTab());
         Tab commTab = new Tab("Communication");
         commTab.setClosable(false);
         commTab.setContent(createInstructorCommTab());
+        Tab inboxTab = new Tab("Messages");
+        inboxTab.setClosable(false);
+        inboxTab.setContent(createInboxTab());
 
-        tabPane.getTabs().addAll(overviewTab, contentTab, gradingTab, commTab);
-        rootLayout.setCenter(tabPane);
-        logActivity("Accessed instructor dashboard");
+        Tab atRiskTab = new Tab("At-Risk Students");
+        atRiskTab.setClosable(false);
+        atRiskTab.setContent(createAtRiskView(getInstructorCourses(), false));
+
+        tabPane.getTabs().addAll(overviewTab, contentTab, gradingTab, gradebookTab, queueTab, atRiskTab, commTab, inboxTab);
+        return tabPane;
     }
 
     private VBox createInstructorOverviewTab() {
         VBox overviewPane = new VBox(10);
         overviewPane.setPadding(new Insets(20));
-        overviewPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        overviewPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Instructor Overview");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TableView<Course> courseTable = new TableView<>();
         TableColumn<Course, String> titleCol = new TableColumn<>("Course Title");
         titleCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
         TableColumn<Course, String> enrollmentCol = new TableColumn<>("Students Enrolled");
-        enrollmentCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(getEnrollmentCount(cellData.getValue().id))));
+        enrollmentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().seats()));
         courseTable.getColumns().addAll(titleCol, enrollmentCol);
         courseTable.setItems(FXCollections.observableArrayList(getAllCourses().stream()
                 .filter(c -> c.instructorId == getUserIdByUsername(currentUser))
@@ -1735,11 +3334,11 @@ public class LearningManagementSystem extends Application {
     private VBox createInstructorContentTab() {
         VBox contentPane = new VBox(10);
         contentPane.setPadding(new Insets(20));
-        contentPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        contentPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Manage Course Content");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         ComboBox<String> courseCombo = new ComboBox<>();
         courseCombo.getItems().addAll(getInstructorCourses());
@@ -1751,12 +3350,39 @@ public class LearningManagementSystem extends Application {
         materialContent.setPromptText("Material Content");
         DatePicker deadlinePicker = new DatePicker();
 
+        ProgressBar uploadProgress = new ProgressBar(0);
+        uploadProgress.setPrefWidth(300);
+        Label uploadStatus = new Label();
+        Button cancelUploadButton = new Button("Cancel Upload");
+        cancelUploadButton.getStyleClass().add("btn-danger");
+        HBox uploadPane = new HBox(10, uploadProgress, uploadStatus, cancelUploadButton);
+        uploadPane.setAlignment(Pos.CENTER_LEFT);
+        uploadPane.setVisible(false);
+        uploadPane.managedProperty().bind(uploadPane.visibleProperty());
+
+        ObjectProperty<File> attachedFile = new SimpleObjectProperty<>();
+        Label attachedFileLabel = new Label("No file attached");
+        Button attachFileButton = new Button("Attach File...");
+        if (materialStore == null) {
+            attachFileButton.setDisable(true);
+            attachedFileLabel.setText("File attachments need a shared lms.files.root");
+        }
+        attachFileButton.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Attach Material File");
+            File file = chooser.showOpenDialog(primaryStage);
+            if (file != null) {
+                attachedFile.set(file);
+                attachedFileLabel.setText(file.getName() + " (" + formatSize(file.length()) + ")");
+            }
+        });
+
         Button addMaterialButton = new Button("Add Material");
-        addMaterialButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        addMaterialButton.getStyleClass().add("btn-success");
         Button addQuizButton = new Button("Add Quiz");
-        addQuizButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        addQuizButton.getStyleClass().add("btn-primary");
         Button addAssignmentButton = new Button("Add Assignment");
-        addAssignmentButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #FFC107; -fx-text-fill: white;" : "-fx-background-color: #FFCA28; -fx-text-fill: white;");
+        addAssignmentButton.getStyleClass().add("btn-warning");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -1769,13 +3395,66 @@ public class LearningManagementSystem extends Application {
                     return;
                 }
                 int courseId = getCourseIdByTitle(courseCombo.getValue());
-                addMaterial(courseId, materialTitle.getText(), materialContent.getText(), deadlinePicker.getValue());
-                statusLabel.setText("Material added successfully!");
-                logActivity("Added material to course: " + courseCombo.getValue());
-                notifyStudents(courseId, "New material added: " + materialTitle.getText());
-                materialTitle.clear();
-                materialContent.clear();
-                deadlinePicker.setValue(null);
+                String courseTitle = courseCombo.getValue();
+                String title = materialTitle.getText();
+                String content = materialContent.getText();
+                LocalDate date = deadlinePicker.getValue();
+                File file = attachedFile.get();
+                Runnable onAdded = () -> {
+                    statusLabel.setText("Material added successfully!");
+                    statusLabel.setTextFill(Color.GREEN);
+                    logActivity("Added material to course: " + courseTitle);
+                    try {
+                        notifyStudents(courseId, "New material added: " + title);
+                    } catch (SQLException ex) {
+                        System.err.println("Error notifying students: " + ex.getMessage());
+                    }
+                    materialTitle.clear();
+                    materialContent.clear();
+                    deadlinePicker.setValue(null);
+                    attachedFile.set(null);
+                    attachedFileLabel.setText("No file attached");
+                };
+                if (file == null) {
+                    addMaterial(courseId, title, content, date);
+                    onAdded.run();
+                    return;
+                }
+
+                // Files are streamed in the background; the material row is added once the upload is committed
+                Task<MaterialFileStore.StoredFile> upload = createUploadTask(getUserIdByUsername(currentUser), courseId, file);
+                uploadProgress.progressProperty().bind(upload.progressProperty());
+                uploadStatus.textProperty().bind(upload.messageProperty());
+                cancelUploadButton.setOnAction(ev -> upload.cancel());
+                addMaterialButton.setDisable(true);
+                uploadPane.setVisible(true);
+                upload.setOnSucceeded(ev -> {
+                    uploadPane.setVisible(false);
+                    addMaterialButton.setDisable(false);
+                    try {
+                        addMaterial(courseId, title, content, date, upload.getValue(), file.getName(),
+                                Files.probeContentType(file.toPath()));
+                        onAdded.run();
+                    } catch (IOException | SQLException ex) {
+                        statusLabel.setText("Error: " + ex.getMessage());
+                        statusLabel.setTextFill(Color.RED);
+                    }
+                });
+                upload.setOnCancelled(ev -> {
+                    uploadPane.setVisible(false);
+                    addMaterialButton.setDisable(false);
+                    statusLabel.setText("Upload paused. Add the same file again to resume.");
+                    statusLabel.setTextFill(Color.RED);
+                });
+                upload.setOnFailed(ev -> {
+                    uploadPane.setVisible(false);
+                    addMaterialButton.setDisable(false);
+                    statusLabel.setText("Upload interrupted: " + upload.getException().getMessage() + ". Add the same file again to resume.");
+                    statusLabel.setTextFill(Color.RED);
+                });
+                Thread uploadThread = new Thread(upload, "material-upload");
+                uploadThread.setDaemon(true);
+                uploadThread.start();
             } catch (SQLException ex) {
                 statusLabel.setText("Error: " + ex.getMessage());
                 statusLabel.setTextFill(Color.RED);
@@ -1790,10 +3469,12 @@ public class LearningManagementSystem extends Application {
                     return;
                 }
                 int courseId = getCourseIdByTitle(courseCombo.getValue());
-                showQuizCreationDialog(courseId);
-                statusLabel.setText("Quiz added successfully!");
-                logActivity("Added quiz to course: " + courseCombo.getValue());
-                notifyStudents(courseId, "New quiz added to course: " + courseCombo.getValue());
+                if (showQuizCreationDialog(courseId)) {
+                    statusLabel.setText("Quiz added successfully!");
+                    statusLabel.setTextFill(Color.GREEN);
+                    logActivity("Added quiz to course: " + courseCombo.getValue());
+                    notifyStudents(courseId, "New quiz added to course: " + courseCombo.getValue());
+                }
             } catch (SQLException ex) {
                 statusLabel.setText("Error: " + ex.getMessage());
                 statusLabel.setTextFill(Color.RED);
@@ -1833,18 +3514,21 @@ public class LearningManagementSystem extends Application {
         formPane.add(materialContent, 1, 2);
         formPane.add(new Label("Deadline:"), 0, 3);
         formPane.add(deadlinePicker, 1, 3);
+        formPane.add(new Label("File:"), 0, 4);
+        formPane.add(new HBox(10, attachFileButton, attachedFileLabel), 1, 4);
 
         HBox buttonPane = new HBox(10, addMaterialButton, addQuizButton, addAssignmentButton);
         buttonPane.setAlignment(Pos.CENTER);
 
-        contentPane.getChildren().addAll(titleLabel, formPane, buttonPane, statusLabel);
+        contentPane.getChildren().addAll(titleLabel, formPane, buttonPane, uploadPane, statusLabel);
         return contentPane;
     }
 
-    private void showQuizCreationDialog(int courseId) throws SQLException {
+    // Returns true when a quiz was saved
+    private boolean showQuizCreationDialog(int courseId) throws SQLException {
         Dialog<Quiz> dialog = new Dialog<>();
         dialog.setTitle("Create Quiz");
-        dialog.setHeaderText("Add a new quiz question");
+        dialog.setHeaderText("Add a new quiz with one or more questions");
 
         ButtonType saveButtonType = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
         dialog.getDialogPane().getButtonTypes().addAll(saveButtonType, ButtonType.CANCEL);
@@ -1856,81 +3540,186 @@ public class LearningManagementSystem extends Application {
 
         TextField titleField = new TextField();
         titleField.setPromptText("Quiz Title");
-        TextArea questionField = new TextArea();
-        questionField.setPromptText("Question");
-        questionField.setPrefRowCount(3);
-        TextField option1 = new TextField();
-        option1.setPromptText("Option 1");
-        TextField option2 = new TextField();
-        option2.setPromptText("Option 2");
-        TextField option3 = new TextField();
-        option3.setPromptText("Option 3");
-        TextField option4 = new TextField();
-        option4.setPromptText("Option 4");
-        ComboBox<Integer> correctOption = new ComboBox<>();
-        correctOption.getItems().addAll(1, 2, 3, 4);
-        correctOption.setPromptText("Correct Option");
-        TextField pointsField = new TextField("100");
-        pointsField.setPromptText("Total Points");
+        TextField attemptsField = new TextField();
+        attemptsField.setPromptText("Leave empty for unlimited");
+        ComboBox<String> policyCombo = new ComboBox<>();
+        policyCombo.getItems().addAll("Best", "Latest");
+        policyCombo.setValue("Best");
+        CheckBox shuffleCheck = new CheckBox("Shuffle answer options for each student");
 
         grid.add(new Label("Title:"), 0, 0);
         grid.add(titleField, 1, 0);
-        grid.add(new Label("Question:"), 0, 1);
-        grid.add(questionField, 1, 1);
-        grid.add(new Label("Option 1:"), 0, 2);
-        grid.add(option1, 1, 2);
-        grid.add(new Label("Option 2:"), 0, 3);
-        grid.add(option2, 1, 3);
-        grid.add(new Label("Option 3:"), 0, 4);
-        grid.add(option3, 1, 4);
-        grid.add(new Label("Option 4:"), 0, 5);
-        grid.add(option4, 1, 5);
-        grid.add(new Label("Correct Option:"), 0, 6);
-        grid.add(correctOption, 1, 6);
-        grid.add(new Label("Total Points:"), 0, 7);
-        grid.add(pointsField, 1, 7);
-
-        dialog.getDialogPane().setContent(grid);
+        grid.add(new Label("Max Attempts:"), 0, 1);
+        grid.add(attemptsField, 1, 1);
+        grid.add(new Label("Attempt That Counts:"), 0, 2);
+        grid.add(policyCombo, 1, 2);
+        grid.add(shuffleCheck, 1, 3);
+
+        VBox questionsBox = new VBox(15);
+        questionsBox.setPadding(new Insets(10));
+        List<TextArea> questionFields = new ArrayList<>();
+        List<TextArea> optionFields = new ArrayList<>();
+        List<ComboBox<Integer>> correctFields = new ArrayList<>();
+        List<TextField> pointsFields = new ArrayList<>();
+        Runnable addQuestion = () -> {
+            TextArea questionField = new TextArea();
+            questionField.setPromptText("Question");
+            questionField.setPrefRowCount(2);
+            TextArea optionsField = new TextArea();
+            optionsField.setPromptText("Options, one per line");
+            optionsField.setPrefRowCount(4);
+            ComboBox<Integer> correctOption = new ComboBox<>();
+            correctOption.setPromptText("Correct Option");
+            // The correct option is picked by number from however many options have been typed
+            optionsField.textProperty().addListener((obs, old, text) -> {
+                Integer current = correctOption.getValue();
+                int count = splitOptions(text).length;
+                correctOption.getItems().setAll(IntStream.rangeClosed(1, count).boxed().toList());
+                correctOption.setValue(current != null && current <= count ? current : null);
+            });
+            TextField pointsField = new TextField("1");
+            pointsField.setPromptText("Points");
+
+            GridPane questionGrid = new GridPane();
+            questionGrid.setHgap(10);
+            questionGrid.setVgap(5);
+            questionGrid.add(new Label("Question " + (questionFields.size() + 1) + ":"), 0, 0);
+            questionGrid.add(questionField, 1, 0);
+            questionGrid.add(new Label("Options:"), 0, 1);
+            questionGrid.add(optionsField, 1, 1);
+            questionGrid.add(new Label("Correct Option:"), 0, 2);
+            questionGrid.add(correctOption, 1, 2);
+            questionGrid.add(new Label("Points:"), 0, 3);
+            questionGrid.add(pointsField, 1, 3);
+
+            questionFields.add(questionField);
+            optionFields.add(optionsField);
+            correctFields.add(correctOption);
+            pointsFields.add(pointsField);
+            questionsBox.getChildren().add(questionGrid);
+        };
+        addQuestion.run();
+
+        Button addQuestionButton = new Button("Add Question");
+        addQuestionButton.setOnAction(e -> addQuestion.run());
+        ScrollPane questionsScroll = new ScrollPane(questionsBox);
+        questionsScroll.setFitToWidth(true);
+        questionsScroll.setPrefHeight(400);
+
+        dialog.getDialogPane().setContent(new VBox(10, grid, questionsScroll, addQuestionButton));
+
+        // Invalid input keeps the dialog open; question blocks left completely empty are skipped
+        List<QuizQuestion> questions = new ArrayList<>();
+        dialog.getDialogPane().lookupButton(saveButtonType).addEventFilter(ActionEvent.ACTION, event -> {
+            questions.clear();
+            String error = null;
+            if (titleField.getText().isBlank()) {
+                error = "Quiz title is required.";
+            } else if (!attemptsField.getText().isBlank() && !attemptsField.getText().trim().matches("[1-9]\\d{0,3}")) {
+                error = "Max attempts must be a positive number.";
+            }
+            for (int i = 0; error == null && i < questionFields.size(); i++) {
+                String text = questionFields.get(i).getText().trim();
+                String[] options = splitOptions(optionFields.get(i).getText());
+                if (text.isEmpty() && options.length == 0) continue;
+                Integer correct = correctFields.get(i).getValue();
+                String points = pointsFields.get(i).getText().trim();
+                if (text.isEmpty() || options.length < 2) {
+                    error = "Question " + (i + 1) + " needs text and at least two options.";
+                } else if (correct == null) {
+                    error = "Choose the correct option for question " + (i + 1) + ".";
+                } else if (!points.matches("[1-9]\\d{0,3}")) {
+                    error = "Points for question " + (i + 1) + " must be a positive number.";
+                } else {
+                    questions.add(new QuizQuestion(questions.size() + 1, text, options, correct, Integer.parseInt(points)));
+                }
+            }
+            if (error == null && questions.isEmpty()) {
+                error = "Add at least one question.";
+            }
+            if (error != null) {
+                showAlert("Invalid Quiz", error);
+                event.consume();
+            }
+        });
 
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == saveButtonType) {
-                String[] options = {option1.getText(), option2.getText(), option3.getText(), option4.getText()};
-                return new Quiz(0, courseId, titleField.getText(), questionField.getText(), options,
-                        correctOption.getValue(), Integer.parseInt(pointsField.getText()));
+                Quiz quiz = new Quiz(0, courseId, titleField.getText().trim(), questions.stream().mapToInt(q -> q.points).sum());
+                quiz.maxAttempts = attemptsField.getText().isBlank() ? null : Integer.parseInt(attemptsField.getText().trim());
+                quiz.scoringPolicy = policyCombo.getValue();
+                quiz.shuffleOptions = shuffleCheck.isSelected();
+                quiz.questions = new ArrayList<>(questions);
+                return quiz;
             }
             return null;
         });
 
         Optional<Quiz> result = dialog.showAndWait();
-        result.ifPresent(quiz -> {
-            try {
-                addQuiz(quiz);
-            } catch (SQLException e) {
-                showAlert("Error", "Failed to add quiz: " + e.getMessage());
-            }
-        });
+        if (result.isEmpty()) return false;
+        addQuiz(result.get());
+        return true;
+    }
+
+    private static String[] splitOptions(String text) {
+        return text.lines().map(String::trim).filter(line -> !line.isEmpty()).toArray(String[]::new);
     }
 
+    // The quiz and its questions are written in one transaction
     private void addQuiz(Quiz quiz) throws SQLException {
-        String sql = "INSERT INTO quizzes (course_id, title, question, options, correct_option, total_points) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, quiz.courseId);
-            stmt.setString(2, quiz.title);
-            stmt.setString(3, quiz.question);
-            stmt.setArray(4, connection.createArrayOf("TEXT", quiz.options));
-            stmt.setInt(5, quiz.correctOption);
-            stmt.setInt(6, quiz.totalPoints);
-            stmt.executeUpdate();
+        String quizSql = "INSERT INTO quizzes (course_id, title, total_points, max_attempts, scoring_policy, shuffle_options) " +
+                "VALUES (?, ?, ?, ?, ?, ?) RETURNING id";
+        String questionSql = "INSERT INTO quiz_questions (quiz_id, position, question, options, correct_option, points) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        connection.setAutoCommit(false);
+        try (PreparedStatement quizStmt = connection.prepareStatement(quizSql);
+             PreparedStatement questionStmt = connection.prepareStatement(questionSql)) {
+            quizStmt.setInt(1, quiz.courseId);
+            quizStmt.setString(2, quiz.title);
+            quizStmt.setInt(3, quiz.totalPoints);
+            quizStmt.setObject(4, quiz.maxAttempts, Types.INTEGER);
+            quizStmt.setString(5, quiz.scoringPolicy);
+            quizStmt.setBoolean(6, quiz.shuffleOptions);
+            ResultSet rs = quizStmt.executeQuery();
+            rs.next();
+            int quizId = rs.getInt(1);
+            for (QuizQuestion question : quiz.questions) {
+                questionStmt.setInt(1, quizId);
+                questionStmt.setInt(2, question.position);
+                questionStmt.setString(3, question.question);
+                questionStmt.setArray(4, connection.createArrayOf("TEXT", question.options));
+                questionStmt.setInt(5, question.correctOption);
+                questionStmt.setInt(6, question.points);
+                questionStmt.addBatch();
+            }
+            questionStmt.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
         }
     }
 
     private void addMaterial(int courseId, String title, String content, LocalDate deadline) throws SQLException {
-        String sql = "INSERT INTO materials (course_id, title, content, upload_date) VALUES (?, ?, ?, ?)";
+        addMaterial(courseId, title, content, deadline, null, null, null);
+    }
+
+    private void addMaterial(int courseId, String title, String content, LocalDate deadline,
+                             MaterialFileStore.StoredFile file, String fileName, String mimeType) throws SQLException {
+        String sql = "INSERT INTO materials (course_id, title, content, upload_date, file_path, content_hash, file_size, file_name, mime_type) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, courseId);
             stmt.setString(2, title);
             stmt.setString(3, content);
             stmt.setDate(4, deadline != null ? Date.valueOf(deadline) : Date.valueOf(LocalDate.now()));
+            stmt.setString(5, file != null ? file.relativePath : null);
+            stmt.setString(6, file != null ? file.sha256 : null);
+            stmt.setObject(7, file != null ? file.size : null, Types.BIGINT);
+            stmt.setString(8, fileName);
+            stmt.setString(9, mimeType);
             stmt.executeUpdate();
         }
     }
@@ -1942,45 +3731,21 @@ public class LearningManagementSystem extends Application {
             stmt.setString(2, title);
             stmt.setDate(3, deadline != null ? Date.valueOf(deadline) : null);
             stmt.executeUpdate();
-
-            // Create assignment entries for all enrolled students
-            String enrollSql = "SELECT student_id FROM enrollments WHERE course_id = ?";
-            try (PreparedStatement enrollStmt = connection.prepareStatement(enrollSql)) {
-                enrollStmt.setInt(1, courseId);
-                ResultSet rs = enrollStmt.executeQuery();
-
-                String studentAssignSql = "INSERT INTO student_assignments (assignment_id, student_id) VALUES (?, ?)";
-                try (PreparedStatement studentAssignStmt = connection.prepareStatement(studentAssignSql)) {
-                    int assignmentId = getLastInsertId();
-                    while (rs.next()) {
-                        studentAssignStmt.setInt(1, assignmentId);
-                        studentAssignStmt.setInt(2, rs.getInt("student_id"));
-                        studentAssignStmt.addBatch();
-                    }
-                    studentAssignStmt.executeBatch();
-                }
-            }
-        }
-    }
-
-    private int getLastInsertId() throws SQLException {
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT lastval()")) {
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
         }
-        throw new SQLException("Failed to get last insert ID");
+        // Student rows are created on submission, so students who enroll later see the assignment too
     }
 
     private void notifyStudents(int courseId, String message) throws SQLException {
         String sql = "SELECT student_id FROM enrollments WHERE course_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             PreparedStatement notifyStmt = connection.prepareStatement(FOLD_NOTIFICATION_SQL)) {
             stmt.setInt(1, courseId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                addNotification(rs.getInt("student_id"), message, "Course Update");
+                bindNotification(notifyStmt, rs.getInt("student_id"), courseId, message, "Course Update");
+                notifyStmt.addBatch();
             }
+            notifyStmt.executeBatch();
         }
     }
 
@@ -2010,11 +3775,11 @@ public class LearningManagementSystem extends Application {
     private VBox createInstructorGradingTab() {
         VBox gradingPane = new VBox(10);
         gradingPane.setPadding(new Insets(20));
-        gradingPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        gradingPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Grade Assignments and Quizzes");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         ComboBox<String> courseCombo = new ComboBox<>();
         courseCombo.getItems().addAll(getInstructorCourses());
@@ -2037,6 +3802,11 @@ public class LearningManagementSystem extends Application {
         feedbackCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().feedback));
         submissionTable.getColumns().addAll(studentCol, titleCol, submissionCol, gradeCol, feedbackCol);
 
+        TextArea submissionText = new TextArea();
+        submissionText.setEditable(false);
+        submissionText.setPromptText("Select a submission to read it in full");
+        submissionText.setPrefRowCount(5);
+
         TextField gradeField = new TextField();
         gradeField.setPromptText("Enter Grade (0-100)");
         TextArea feedbackField = new TextArea();
@@ -2044,15 +3814,111 @@ public class LearningManagementSystem extends Application {
         feedbackField.setPrefRowCount(3);
 
         Button submitGradeButton = new Button("Submit Grade");
-        submitGradeButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        submitGradeButton.getStyleClass().add("btn-success");
         Button exportButton = new Button("Export Grades");
-        exportButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        exportButton.getStyleClass().add("btn-primary");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
 
-        courseCombo.setOnAction(e -> updateSubmissionTable(submissionTable, courseCombo, typeCombo));
-        typeCombo.setOnAction(e -> updateSubmissionTable(submissionTable, courseCombo, typeCombo));
+        // Batch mode: grades and feedback are edited in the table and written together in one transaction
+        CheckBox batchModeCheck = new CheckBox("Batch grading");
+        Button commitBatchButton = new Button("Commit Grades");
+        commitBatchButton.getStyleClass().add("btn-success");
+        Button discardBatchButton = new Button("Discard Changes");
+        discardBatchButton.getStyleClass().add("btn-danger");
+        Label pendingLabel = new Label();
+        HBox batchPane = new HBox(10, batchModeCheck, commitBatchButton, discardBatchButton, pendingLabel);
+        batchPane.setAlignment(Pos.CENTER_LEFT);
+        Map<Integer, Submission> pendingGrades = new LinkedHashMap<>();
+        Runnable updatePending = () -> {
+            pendingLabel.setText(pendingGrades.isEmpty() ? "" : pendingGrades.size() + " unsaved grade(s)");
+            commitBatchButton.setDisable(pendingGrades.isEmpty());
+            discardBatchButton.setDisable(pendingGrades.isEmpty());
+        };
+        updatePending.run();
+
+        batchModeCheck.disableProperty().bind(typeCombo.valueProperty().isNotEqualTo("Assignments"));
+        submissionTable.editableProperty().bind(batchModeCheck.selectedProperty().and(batchModeCheck.disableProperty().not()));
+        gradeCol.setCellFactory(TextFieldTableCell.forTableColumn());
+        feedbackCol.setCellFactory(TextFieldTableCell.forTableColumn());
+        submissionCol.setEditable(false);
+        studentCol.setEditable(false);
+        titleCol.setEditable(false);
+        gradeCol.setOnEditCommit(event -> {
+            Submission row = event.getRowValue();
+            try {
+                int grade = Integer.parseInt(event.getNewValue().trim());
+                if (grade < 0 || grade > 100) throw new NumberFormatException();
+                row.grade = grade;
+                pendingGrades.put(row.id, row);
+                updatePending.run();
+            } catch (NumberFormatException ex) {
+                statusLabel.setText("Grade must be a number between 0 and 100.");
+                statusLabel.setTextFill(Color.RED);
+            }
+            submissionTable.refresh();
+        });
+        feedbackCol.setOnEditCommit(event -> {
+            Submission row = event.getRowValue();
+            row.feedback = event.getNewValue();
+            pendingGrades.put(row.id, row);
+            updatePending.run();
+        });
+
+        courseCombo.setOnAction(e -> {
+            pendingGrades.clear();
+            updatePending.run();
+            updateSubmissionTable(submissionTable, courseCombo, typeCombo);
+        });
+        typeCombo.setOnAction(e -> {
+            pendingGrades.clear();
+            updatePending.run();
+            updateSubmissionTable(submissionTable, courseCombo, typeCombo);
+        });
+
+        commitBatchButton.setOnAction(e -> {
+            if (pendingGrades.isEmpty() || courseCombo.getValue() == null) return;
+            List<Submission> graded = new ArrayList<>(pendingGrades.values());
+            if (graded.stream().anyMatch(sub -> sub.grade == null)) {
+                statusLabel.setText("Enter a grade for every edited submission before committing.");
+                statusLabel.setTextFill(Color.RED);
+                return;
+            }
+            try {
+                commitAssignmentGrades(getCourseIdByTitle(courseCombo.getValue()), graded);
+                pendingGrades.clear();
+                updatePending.run();
+                submissionTable.refresh();
+                statusLabel.setText(graded.size() + " grade(s) submitted successfully!");
+                statusLabel.setTextFill(Color.GREEN);
+                logActivity("Batch graded " + graded.size() + " assignment submission(s) in course: " + courseCombo.getValue());
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage() + " (no grades were saved)");
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        discardBatchButton.setOnAction(e -> {
+            pendingGrades.clear();
+            updatePending.run();
+            updateSubmissionTable(submissionTable, courseCombo, typeCombo);
+        });
+
+        submissionTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
+            if (newValue == null) {
+                submissionText.clear();
+                return;
+            }
+            try {
+                submissionText.setText("Assignments".equals(typeCombo.getValue())
+                        ? getLargeText("student_assignments", "submission", newValue.id)
+                        : newValue.submission);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
 
         submitGradeButton.setOnAction(e -> {
             Submission selected = submissionTable.getSelectionModel().getSelectedItem();
@@ -2067,11 +3933,13 @@ public class LearningManagementSystem extends Application {
                     if ("Assignments".equals(typeCombo.getValue())) {
                         updateAssignmentGrade(selected.id, grade, feedbackField.getText());
                         updateStudentProgress(getCourseIdByTitle(courseCombo.getValue()), selected.studentId);
+                        selected.grade = grade;
+                        selected.feedback = feedbackField.getText();
+                        submissionTable.refresh();
                     }
-                    updateSubmissionTable(submissionTable, courseCombo, typeCombo);
                     statusLabel.setText("Grade submitted successfully!");
                     logActivity("Graded " + typeCombo.getValue() + ": " + selected.title + " for student: " + getUsernameById(selected.studentId));
-                    addNotification(selected.studentId, "Your " + typeCombo.getValue().toLowerCase() + " '" + selected.title + "' was graded: " + grade, "Grade");
+                    addNotification(selected.studentId, getCourseIdByTitle(courseCombo.getValue()), "Your " + typeCombo.getValue().toLowerCase() + " '" + selected.title + "' was graded: " + grade, "Grade");
                     gradeField.clear();
                     feedbackField.clear();
                 } catch (NumberFormatException ex) {
@@ -2084,12 +3952,61 @@ public class LearningManagementSystem extends Application {
             }
         });
 
+        // Closing a quiz stops new attempts and re-grades every submission against the final answer key
+        Button closeQuizButton = new Button("Close Quiz and Re-grade");
+        closeQuizButton.getStyleClass().add("btn-warning");
+        closeQuizButton.disableProperty().bind(typeCombo.valueProperty().isNotEqualTo("Quizzes"));
+        closeQuizButton.setOnAction(e -> {
+            if (courseCombo.getValue() == null) {
+                statusLabel.setText("Please select a course.");
+                statusLabel.setTextFill(Color.RED);
+                return;
+            }
+            try {
+                int courseId = getCourseIdByTitle(courseCombo.getValue());
+                int instructorId = getUserIdByUsername(currentUser);
+                Map<String, Quiz> openQuizzes = new LinkedHashMap<>();
+                for (Quiz quiz : getQuizzes(courseId, instructorId)) {
+                    if (!quiz.closed) openQuizzes.put(quiz.title + " (#" + quiz.id + ")", quiz);
+                }
+                if (openQuizzes.isEmpty()) {
+                    statusLabel.setText("This course has no open quizzes.");
+                    statusLabel.setTextFill(Color.RED);
+                    return;
+                }
+                ChoiceDialog<String> choice = new ChoiceDialog<>(openQuizzes.keySet().iterator().next(), openQuizzes.keySet());
+                choice.setTitle("Close Quiz");
+                choice.setHeaderText("No further attempts will be accepted and every submission will be re-graded.");
+                choice.setContentText("Quiz:");
+                Optional<String> picked = choice.showAndWait();
+                if (picked.isEmpty()) return;
+                Quiz quiz = openQuizzes.get(picked.get());
+                if (!closeQuiz(quiz.id)) {
+                    statusLabel.setText("That quiz is already closed.");
+                    statusLabel.setTextFill(Color.RED);
+                    return;
+                }
+                runInBackground("quiz re-grade", conn -> {
+                    int changed = regradeQuiz(conn, quiz.id, courseId);
+                    addNotification(conn, instructorId, courseId,
+                            "Quiz '" + quiz.title + "' closed and re-graded: " + changed + " score(s) changed", "Grade");
+                    return changed;
+                });
+                statusLabel.setText("Quiz closed; submissions are being re-graded in the background.");
+                statusLabel.setTextFill(Color.GREEN);
+                logActivity("Closed quiz: " + quiz.title + " in course: " + courseCombo.getValue());
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
         exportButton.setOnAction(e -> {
             try {
-                exportGrades(submissionTable.getItems());
+                exportGrades(submissionTable.getItems(), "Assignments".equals(typeCombo.getValue()));
                 statusLabel.setText("Grades exported successfully!");
                 logActivity("Exported grades for course: " + courseCombo.getValue());
-            } catch (IOException ex) {
+            } catch (IOException | SQLException ex) {
                 statusLabel.setText("Error exporting grades: " + ex.getMessage());
                 statusLabel.setTextFill(Color.RED);
             }
@@ -2108,13 +4025,261 @@ public class LearningManagementSystem extends Application {
         formPane.add(new Label("Feedback:"), 0, 3);
         formPane.add(feedbackField, 1, 3);
 
-        HBox buttonPane = new HBox(10, submitGradeButton, exportButton);
+        HBox buttonPane = new HBox(10, submitGradeButton, exportButton, closeQuizButton);
         buttonPane.setAlignment(Pos.CENTER);
 
-        gradingPane.getChildren().addAll(titleLabel, formPane, submissionTable, buttonPane, statusLabel);
+        gradingPane.getChildren().addAll(titleLabel, formPane, batchPane, submissionTable, submissionText, buttonPane, statusLabel);
         return gradingPane;
     }
 
+    private VBox createGradebookTab() {
+        VBox gradebookPane = new VBox(10);
+        gradebookPane.setPadding(new Insets(20));
+        gradebookPane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Gradebook");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        ComboBox<String> courseCombo = new ComboBox<>();
+        courseCombo.getItems().addAll(getInstructorCourses());
+        courseCombo.setPromptText("Select Course");
+
+        GradebookGrid grid = new GradebookGrid();
+        VBox.setVgrow(grid, Priority.ALWAYS);
+        Label statusLabel = new Label();
+        statusLabel.getStyleClass().add("section-text");
+
+        courseCombo.setOnAction(e -> {
+            if (courseCombo.getValue() == null) return;
+            try {
+                long start = System.nanoTime();
+                GradebookMatrix matrix = loadGradebook(getCourseIdByTitle(courseCombo.getValue()));
+                grid.setMatrix(matrix, passThreshold);
+                statusLabel.setText(matrix.rows() + " students x " + matrix.columns() + " assessments loaded in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (SQLException ex) {
+                showAlert("Error", "Failed to load gradebook: " + ex.getMessage());
+            }
+        });
+
+        gradebookPane.getChildren().addAll(titleLabel, courseCombo, grid, statusLabel);
+        return gradebookPane;
+    }
+
+    // Builds the gradebook from two queries: the course's assessments, then one row per enrolled student
+    // carrying that student's scores as parallel arrays; quiz scores are converted to percentages like assignment grades
+    private GradebookMatrix loadGradebook(int courseId) throws SQLException {
+        List<String> titles = new ArrayList<>();
+        List<Boolean> quizFlags = new ArrayList<>();
+        Map<Integer, Integer> assignmentColumns = new HashMap<>();
+        Map<Integer, Integer> quizColumns = new HashMap<>();
+        String columnsSql = "SELECT id, title, FALSE AS quiz, deadline FROM assignments WHERE course_id = ? " +
+                "UNION ALL SELECT id, title, TRUE AS quiz, NULL FROM quizzes WHERE course_id = ? " +
+                "ORDER BY quiz, deadline, id";
+        try (PreparedStatement stmt = connection.prepareStatement(columnsSql)) {
+            stmt.setInt(1, courseId);
+            stmt.setInt(2, courseId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                boolean quiz = rs.getBoolean("quiz");
+                (quiz ? quizColumns : assignmentColumns).put(rs.getInt("id"), titles.size());
+                titles.add(rs.getString("title"));
+                quizFlags.add(quiz);
+            }
+        }
+
+        String scoresSql = "WITH ag AS (SELECT sa.student_id, array_agg(sa.assignment_id) AS ids, array_agg(sa.grade) AS scores " +
+                "FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
+                "WHERE a.course_id = ? AND sa.grade IS NOT NULL GROUP BY sa.student_id), " +
+                "qs AS (SELECT student_id, quiz_id, score * 100.0 / NULLIF(total_points, 0) AS score " +
+                "FROM quiz_effective_scores WHERE course_id = ?), " +
+                "qg AS (SELECT student_id, array_agg(quiz_id) AS ids, array_agg(score) AS scores FROM qs GROUP BY student_id) " +
+                "SELECT e.student_id, u.username, ag.ids AS assignment_ids, ag.scores AS assignment_scores, " +
+                "qg.ids AS quiz_ids, qg.scores AS quiz_scores " +
+                "FROM enrollments e JOIN users u ON e.student_id = u.id " +
+                "LEFT JOIN ag ON ag.student_id = e.student_id LEFT JOIN qg ON qg.student_id = e.student_id " +
+                "WHERE e.course_id = ? ORDER BY u.username";
+        List<Integer> studentIds = new ArrayList<>();
+        List<String> studentNames = new ArrayList<>();
+        List<Object[]> scoreArrays = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(scoresSql)) {
+            stmt.setInt(1, courseId);
+            stmt.setInt(2, courseId);
+            stmt.setInt(3, courseId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                studentIds.add(rs.getInt("student_id"));
+                studentNames.add(rs.getString("username"));
+                scoreArrays.add(new Object[]{
+                        sqlArray(rs.getArray("assignment_ids")), sqlArray(rs.getArray("assignment_scores")),
+                        sqlArray(rs.getArray("quiz_ids")), sqlArray(rs.getArray("quiz_scores"))
+                });
+            }
+        }
+
+        boolean[] quizFlagArray = new boolean[quizFlags.size()];
+        for (int i = 0; i < quizFlagArray.length; i++) quizFlagArray[i] = quizFlags.get(i);
+        GradebookMatrix matrix = new GradebookMatrix(
+                studentIds.stream().mapToInt(Integer::intValue).toArray(),
+                studentNames.toArray(new String[0]),
+                titles.toArray(new String[0]),
+                quizFlagArray);
+        for (int row = 0; row < scoreArrays.size(); row++) {
+            Object[] arrays = scoreArrays.get(row);
+            fillGradebookRow(matrix, row, assignmentColumns, (Object[]) arrays[0], (Object[]) arrays[1]);
+            fillGradebookRow(matrix, row, quizColumns, (Object[]) arrays[2], (Object[]) arrays[3]);
+        }
+        matrix.computeAverages();
+        return matrix;
+    }
+
+    private static Object[] sqlArray(Array array) throws SQLException {
+        return array != null ? (Object[]) array.getArray() : new Object[0];
+    }
+
+    private static void fillGradebookRow(GradebookMatrix matrix, int row, Map<Integer, Integer> columns, Object[] ids, Object[] scores) {
+        for (int i = 0; i < ids.length; i++) {
+            Integer column = columns.get(((Number) ids[i]).intValue());
+            if (column != null && scores[i] != null) {
+                matrix.setScore(row, column, ((Number) scores[i]).floatValue());
+            }
+        }
+    }
+
+    private VBox createGradingQueueTab() {
+        VBox queuePane = new VBox(10);
+        queuePane.setPadding(new Insets(20));
+        queuePane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Grading Queue");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        Label infoLabel = new Label("Claimed submissions are reserved for you for " + GRADING_LEASE_MINUTES +
+                " minutes; other graders receive different ones.");
+        infoLabel.getStyleClass().add("section-text");
+
+        ComboBox<String> courseCombo = new ComboBox<>();
+        courseCombo.getItems().addAll(getInstructorCourses());
+        courseCombo.setPromptText("Select Course");
+
+        Button claimButton = new Button("Claim Next " + GRADING_CLAIM_BATCH);
+        claimButton.getStyleClass().add("btn-primary");
+        Button releaseButton = new Button("Release My Claims");
+        releaseButton.getStyleClass().add("btn-warning");
+        HBox claimPane = new HBox(10, courseCombo, claimButton, releaseButton);
+        claimPane.setAlignment(Pos.CENTER_LEFT);
+
+        TableView<Submission> queueTable = new TableView<>();
+        TableColumn<Submission, String> studentCol = new TableColumn<>("Student");
+        studentCol.setCellValueFactory(cellData -> new SimpleStringProperty(getUsernameById(cellData.getValue().studentId)));
+        TableColumn<Submission, String> titleCol = new TableColumn<>("Title");
+        titleCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
+        TableColumn<Submission, String> submissionCol = new TableColumn<>("Submission");
+        submissionCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().submission));
+        queueTable.getColumns().addAll(studentCol, titleCol, submissionCol);
+        queueTable.setPlaceholder(new Label("Claim a batch to start grading"));
+
+        TextArea submissionText = new TextArea();
+        submissionText.setEditable(false);
+        submissionText.setPrefRowCount(5);
+        TextField gradeField = new TextField();
+        gradeField.setPromptText("Enter Grade (0-100)");
+        TextArea feedbackField = new TextArea();
+        feedbackField.setPromptText("Feedback");
+        feedbackField.setPrefRowCount(3);
+        Button gradeButton = new Button("Submit Grade");
+        gradeButton.getStyleClass().add("btn-success");
+
+        Label statusLabel = new Label();
+        statusLabel.setTextFill(Color.GREEN);
+
+        claimButton.setOnAction(e -> {
+            if (courseCombo.getValue() == null) return;
+            try {
+                int courseId = getCourseIdByTitle(courseCombo.getValue());
+                List<Submission> claimed = claimSubmissions(courseId, getUserIdByUsername(currentUser), GRADING_CLAIM_BATCH);
+                queueTable.setItems(FXCollections.observableArrayList(claimed));
+                statusLabel.setText(claimed.isEmpty() ? "No ungraded submissions are waiting." : "Claimed " + claimed.size() + " submission(s).");
+                statusLabel.setTextFill(Color.GREEN);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        releaseButton.setOnAction(e -> {
+            try {
+                releaseClaims(getUserIdByUsername(currentUser));
+                queueTable.getItems().clear();
+                statusLabel.setText("Claims released.");
+                statusLabel.setTextFill(Color.GREEN);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        queueTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
+            if (newValue == null) {
+                submissionText.clear();
+                return;
+            }
+            try {
+                submissionText.setText(getLargeText("student_assignments", "submission", newValue.id));
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        gradeButton.setOnAction(e -> {
+            Submission selected = queueTable.getSelectionModel().getSelectedItem();
+            if (selected == null || courseCombo.getValue() == null) return;
+            try {
+                int grade = Integer.parseInt(gradeField.getText());
+                if (grade < 0 || grade > 100) {
+                    statusLabel.setText("Grade must be between 0 and 100.");
+                    statusLabel.setTextFill(Color.RED);
+                    return;
+                }
+                boolean graded = gradeClaimedSubmission(selected.id, getUserIdByUsername(currentUser), grade, feedbackField.getText());
+                queueTable.getItems().remove(selected);
+                if (!graded) {
+                    statusLabel.setText("Your claim on this submission expired and it was taken by another grader.");
+                    statusLabel.setTextFill(Color.RED);
+                    return;
+                }
+                updateStudentProgress(getCourseIdByTitle(courseCombo.getValue()), selected.studentId);
+                addNotification(selected.studentId, getCourseIdByTitle(courseCombo.getValue()), "Your assignments '" + selected.title + "' was graded: " + grade, "Grade");
+                logActivity("Graded Assignments: " + selected.title + " for student: " + getUsernameById(selected.studentId));
+                statusLabel.setText("Grade submitted. " + queueTable.getItems().size() + " left in your batch.");
+                statusLabel.setTextFill(Color.GREEN);
+                gradeField.clear();
+                feedbackField.clear();
+            } catch (NumberFormatException ex) {
+                statusLabel.setText("Invalid grade format.");
+                statusLabel.setTextFill(Color.RED);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        GridPane formPane = new GridPane();
+        formPane.setHgap(10);
+        formPane.setVgap(10);
+        formPane.add(new Label("Grade:"), 0, 0);
+        formPane.add(gradeField, 1, 0);
+        formPane.add(new Label("Feedback:"), 0, 1);
+        formPane.add(feedbackField, 1, 1);
+        formPane.add(gradeButton, 1, 2);
+
+        queuePane.getChildren().addAll(titleLabel, infoLabel, claimPane, queueTable, submissionText, formPane, statusLabel);
+        return queuePane;
+    }
+
     private void updateSubmissionTable(TableView<Submission> table, ComboBox<String> courseCombo, ComboBox<String> typeCombo) {
         if (courseCombo.getValue() == null || typeCombo.getValue() == null) return;
         try {
@@ -2130,11 +4295,12 @@ public class LearningManagementSystem extends Application {
 
     private List<Submission> getAssignmentSubmissions(int courseId) throws SQLException {
         List<Submission> submissions = new ArrayList<>();
-        String sql = "SELECT sa.id, sa.student_id, a.title, sa.submission, sa.grade, sa.feedback " +
+        String sql = "SELECT sa.id, sa.student_id, a.title, left(sa.submission, ?) AS submission, sa.grade, sa.feedback " +
                 "FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
                 "WHERE a.course_id = ? AND sa.submission IS NOT NULL";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
+            stmt.setInt(1, PREVIEW_LENGTH);
+            stmt.setInt(2, courseId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 submissions.add(new Submission(
@@ -2152,9 +4318,10 @@ public class LearningManagementSystem extends Application {
 
     private List<Submission> getQuizSubmissions(int courseId) throws SQLException {
         List<Submission> submissions = new ArrayList<>();
-        String sql = "SELECT qs.id, qs.student_id, q.title, qs.selected_option::text, " +
-                "CASE WHEN qs.selected_option = q.correct_option THEN q.total_points ELSE 0 END as score " +
-                "FROM quiz_submissions qs JOIN quizzes q ON qs.quiz_id = q.id WHERE q.course_id = ?";
+        String sql = "SELECT qs.id, qs.student_id, q.title || ' (attempt ' || qs.attempt_no || ')' AS title, " +
+                "array_to_string(qs.answers, ' ') AS answers, qs.score " +
+                "FROM quiz_submissions qs JOIN quizzes q ON qs.quiz_id = q.id WHERE q.course_id = ? " +
+                "ORDER BY qs.quiz_id, qs.student_id, qs.attempt_no";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, courseId);
             ResultSet rs = stmt.executeQuery();
@@ -2163,7 +4330,7 @@ public class LearningManagementSystem extends Application {
                         rs.getInt("id"),
                         rs.getInt("student_id"),
                         rs.getString("title"),
-                        "Option " + rs.getString("selected_option"),
+                        "Answers: " + rs.getString("answers"),
                         rs.getObject("score") != null ? rs.getInt("score") : null,
                         "Auto-graded"
                 ));
@@ -2173,61 +4340,210 @@ public class LearningManagementSystem extends Application {
     }
 
     private void updateAssignmentGrade(int assignmentId, int grade, String feedback) throws SQLException {
-        String sql = "UPDATE student_assignments SET grade = ?, feedback = ? WHERE id = ?";
+        String sql = "UPDATE student_assignments SET grade = ?, feedback = ?, claimed_by = NULL, claim_expires_at = NULL " +
+                "WHERE id = ? AND " + UNCLAIMED_OR_MINE;
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, grade);
             stmt.setString(2, feedback);
             stmt.setInt(3, assignmentId);
-            stmt.executeUpdate();
+            stmt.setInt(4, getUserIdByUsername(currentUser));
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("This submission is claimed by another grader");
+            }
         }
     }
 
-    private void updateStudentProgress(int courseId, int studentId) throws SQLException {
-        // Calculate average grade for assignments
-        String assignSql = "SELECT AVG(COALESCE(sa.grade, 0)) as avg_grade " +
-                "FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
-                "WHERE a.course_id = ? AND sa.student_id = ? AND sa.grade IS NOT NULL";
-        double assignAvg = 0;
-        try (PreparedStatement stmt = connection.prepareStatement(assignSql)) {
-            stmt.setInt(1, courseId);
-            stmt.setInt(2, studentId);
+    // Claims up to limit ungraded submissions of the course for the grader. Rows locked by another grader's claim
+    // are skipped rather than waited on, so concurrent graders never receive the same submission. The grader's
+    // own unexpired claims are returned again with a renewed lease.
+    private List<Submission> claimSubmissions(int courseId, int graderId, int limit) throws SQLException {
+        String sql = "UPDATE student_assignments sa SET claimed_by = ?, claim_expires_at = now() + make_interval(mins => ?) " +
+                "FROM (SELECT sa2.id, a.title FROM student_assignments sa2 JOIN assignments a ON sa2.assignment_id = a.id " +
+                "WHERE a.course_id = ? AND sa2.grade IS NULL AND sa2.submission IS NOT NULL " +
+                "AND (sa2.claimed_by IS NULL OR sa2.claimed_by = ? OR sa2.claim_expires_at < now()) " +
+                "ORDER BY (sa2.claimed_by = ?) IS TRUE DESC, sa2.submitted_date, sa2.id LIMIT ? " +
+                "FOR UPDATE OF sa2 SKIP LOCKED) claim " +
+                "WHERE sa.id = claim.id " +
+                "RETURNING sa.id, sa.student_id, claim.title, left(sa.submission, ?) AS submission, sa.feedback";
+        List<Submission> claimed = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, graderId);
+            stmt.setInt(2, GRADING_LEASE_MINUTES);
+            stmt.setInt(3, courseId);
+            stmt.setInt(4, graderId);
+            stmt.setInt(5, graderId);
+            stmt.setInt(6, limit);
+            stmt.setInt(7, PREVIEW_LENGTH);
             ResultSet rs = stmt.executeQuery();
-            if (rs.next()) assignAvg = rs.getDouble("avg_grade");
+            while (rs.next()) {
+                claimed.add(new Submission(
+                        rs.getInt("id"),
+                        rs.getInt("student_id"),
+                        rs.getString("title"),
+                        rs.getString("submission"),
+                        null,
+                        rs.getString("feedback")
+                ));
+            }
         }
+        return claimed;
+    }
 
-        // Calculate average grade for quizzes
-        String quizSql = "SELECT AVG(COALESCE(CASE WHEN qs.selected_option = q.correct_option THEN q.total_points ELSE 0 END, 0)) as avg_grade " +
-                "FROM quiz_submissions qs JOIN quizzes q ON qs.quiz_id = q.id " +
-                "WHERE q.course_id = ? AND qs.student_id = ?";
-        double quizAvg = 0;
-        try (PreparedStatement stmt = connection.prepareStatement(quizSql)) {
-            stmt.setInt(1, courseId);
-            stmt.setInt(2, studentId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) quizAvg = rs.getDouble("avg_grade");
+    // Grades a claimed submission; fails if the claim has expired and been taken over
+    private boolean gradeClaimedSubmission(int submissionId, int graderId, int grade, String feedback) throws SQLException {
+        String sql = "UPDATE student_assignments SET grade = ?, feedback = ?, claimed_by = NULL, claim_expires_at = NULL " +
+                "WHERE id = ? AND claimed_by = ? AND grade IS NULL";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, grade);
+            stmt.setString(2, feedback);
+            stmt.setInt(3, submissionId);
+            stmt.setInt(4, graderId);
+            return stmt.executeUpdate() == 1;
         }
+    }
 
-        // Calculate overall progress (average of assignments and quizzes)
-        double overallProgress = (assignAvg + quizAvg) / 2;
+    private void releaseClaims(int graderId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE student_assignments SET claimed_by = NULL, claim_expires_at = NULL WHERE claimed_by = ? AND grade IS NULL")) {
+            stmt.setInt(1, graderId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Writes a batch of assignment grades, the affected students' progress and their notifications in one transaction
+    private void commitAssignmentGrades(int courseId, List<Submission> graded) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement gradeStmt = connection.prepareStatement(
+                "UPDATE student_assignments SET grade = ?, feedback = ?, claimed_by = NULL, claim_expires_at = NULL " +
+                        "WHERE id = ? AND " + UNCLAIMED_OR_MINE);
+             PreparedStatement notifyStmt = connection.prepareStatement(FOLD_NOTIFICATION_SQL)) {
+            int graderId = getUserIdByUsername(currentUser);
+            Set<Integer> studentIds = new LinkedHashSet<>();
+            for (Submission sub : graded) {
+                gradeStmt.setInt(1, sub.grade);
+                gradeStmt.setString(2, sub.feedback);
+                gradeStmt.setInt(3, sub.id);
+                gradeStmt.setInt(4, graderId);
+                gradeStmt.addBatch();
+
+                bindNotification(notifyStmt, sub.studentId, courseId, "Your assignments '" + sub.title + "' was graded: " + sub.grade, "Grade");
+                notifyStmt.addBatch();
+
+                studentIds.add(sub.studentId);
+            }
+            long skipped = Arrays.stream(gradeStmt.executeBatch()).filter(count -> count == 0).count();
+            if (skipped > 0) {
+                throw new SQLException(skipped + " submission(s) are claimed by another grader");
+            }
+            updateStudentProgress(courseId, studentIds);
+            notifyStmt.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void updateStudentProgress(int courseId, int studentId) throws SQLException {
+        updateStudentProgress(courseId, List.of(studentId));
+    }
+
+    // Recomputes progress for a set of students in one statement: the average of the graded assignment
+    // average and the quiz average, each counting as 0 when there is nothing to average. Quiz scores are taken
+    // as percentages of each quiz's total points, since quizzes carry arbitrary point totals. The same statement
+    // flags the updated enrollments that fell below the pass threshold and clears the ones that recovered.
+    private void updateStudentProgress(int courseId, Collection<Integer> studentIds) throws SQLException {
+        updateStudentProgress(connection, courseId, studentIds);
+    }
 
-        String updateSql = "UPDATE enrollments SET progress = ? WHERE course_id = ? AND student_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(updateSql)) {
-            stmt.setInt(1, (int) overallProgress);
+    private void updateStudentProgress(Connection conn, int courseId, Collection<Integer> studentIds) throws SQLException {
+        String sql = "WITH s AS (SELECT unnest(?::int[]) AS student_id), " +
+                "t AS (SELECT pass_threshold FROM lms_settings FOR SHARE), " +
+                "ag AS (SELECT sa.student_id, AVG(sa.grade) AS avg_grade " +
+                "FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
+                "WHERE a.course_id = ? AND sa.grade IS NOT NULL AND sa.student_id IN (SELECT student_id FROM s) " +
+                "GROUP BY sa.student_id), " +
+                "qg AS (SELECT student_id, AVG(score * 100.0 / NULLIF(total_points, 0)) AS avg_grade FROM quiz_effective_scores " +
+                "WHERE course_id = ? AND student_id IN (SELECT student_id FROM s) " +
+                "GROUP BY student_id), " +
+                "upd AS (UPDATE enrollments e SET progress = FLOOR((COALESCE(ag.avg_grade, 0) + COALESCE(qg.avg_grade, 0)) / 2) " +
+                "FROM s LEFT JOIN ag ON ag.student_id = s.student_id LEFT JOIN qg ON qg.student_id = s.student_id " +
+                "WHERE e.course_id = ? AND e.student_id = s.student_id " +
+                "RETURNING e.id, e.course_id, e.student_id, e.progress), " +
+                "flag AS (INSERT INTO at_risk_enrollments (enrollment_id, course_id, student_id, progress, threshold, flagged_at) " +
+                "SELECT upd.id, upd.course_id, upd.student_id, upd.progress, t.pass_threshold, now() FROM upd, t " +
+                "WHERE upd.progress < t.pass_threshold " +
+                "ON CONFLICT (enrollment_id) DO UPDATE SET progress = EXCLUDED.progress, threshold = EXCLUDED.threshold) " +
+                "DELETE FROM at_risk_enrollments r USING upd, t WHERE r.enrollment_id = upd.id AND upd.progress >= t.pass_threshold";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("integer", studentIds.toArray()));
             stmt.setInt(2, courseId);
-            stmt.setInt(3, studentId);
+            stmt.setInt(3, courseId);
+            stmt.setInt(4, courseId);
             stmt.executeUpdate();
         }
+        invalidateGradeStats(conn, courseId);
     }
 
-    private void exportGrades(List<Submission> submissions) throws IOException {
+    private void exportGrades(List<Submission> submissions, boolean assignments) throws IOException, SQLException {
         String fileName = "grades_export_" + LocalDate.now() + ".csv";
         try (PrintWriter writer = new PrintWriter(fileName)) {
             writer.println("Student,Title,Submission,Grade,Feedback");
             for (Submission sub : submissions) {
                 String grade = sub.grade != null ? sub.grade.toString() : "Ungraded";
                 String feedback = sub.feedback != null ? sub.feedback.replace(",", ";") : "";
-                writer.println(String.format("%s,%s,%s,%s,%s",
-                        getUsernameById(sub.studentId), sub.title, sub.submission, grade, feedback));
+                writer.print(getUsernameById(sub.studentId) + "," + sub.title + ",");
+                // Full assignment bodies are streamed straight into the file rather than loaded per row
+                if (assignments) {
+                    streamLargeText("student_assignments", "submission", sub.id, writer);
+                } else {
+                    writer.print(sub.submission);
+                }
+                writer.println("," + grade + "," + feedback);
+            }
+        }
+    }
+
+    // Returns a large text column for a single row; table and column are always code constants.
+    // Only material content is cached: submissions are replaced on resubmission from another client,
+    // and a cached copy would keep showing the old text to an instructor who opened it earlier
+    private String getLargeText(String table, String column, int id) throws SQLException {
+        boolean cacheable = table.equals("materials");
+        String key = table + "." + column + "#" + id;
+        if (cacheable) {
+            String cached = largeTextCache.get(key);
+            if (cached != null) return cached;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT " + column + " FROM " + table + " WHERE id = ?")) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            String text = rs.next() && rs.getString(1) != null ? rs.getString(1) : "";
+            if (cacheable) {
+                largeTextCache.put(key, text);
+            }
+            return text;
+        }
+    }
+
+    // Copies a large text column to the writer in fixed-size chunks so memory use does not grow with the body
+    private void streamLargeText(String table, String column, int id, Writer out) throws SQLException, IOException {
+        String sql = "SELECT substr(" + column + ", ?, ?) FROM " + table + " WHERE id = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int offset = 1;
+            while (true) {
+                stmt.setInt(1, offset);
+                stmt.setInt(2, LARGE_TEXT_CHUNK_CHARS);
+                stmt.setInt(3, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    String chunk = rs.next() ? rs.getString(1) : null;
+                    if (chunk == null || chunk.isEmpty()) return;
+                    out.write(chunk);
+                    if (chunk.length() < LARGE_TEXT_CHUNK_CHARS) return;
+                    offset += chunk.length();
+                }
             }
         }
     }
@@ -2235,11 +4551,11 @@ public class LearningManagementSystem extends Application {
     private VBox createInstructorCommTab() {
         VBox commPane = new VBox(10);
         commPane.setPadding(new Insets(20));
-        commPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        commPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Communication");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         ComboBox<String> courseCombo = new ComboBox<>();
         courseCombo.getItems().addAll(getInstructorCourses());
@@ -2252,8 +4568,11 @@ public class LearningManagementSystem extends Application {
         messageField.setPromptText("Type your message here...");
         messageField.setPrefRowCount(5);
 
+        CheckBox broadcastCheck = new CheckBox("Send to all students in the course");
+        studentCombo.disableProperty().bind(broadcastCheck.selectedProperty());
+
         Button sendButton = new Button("Send Message");
-        sendButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        sendButton.getStyleClass().add("btn-success");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -2270,6 +4589,16 @@ public class LearningManagementSystem extends Application {
         });
 
         sendButton.setOnAction(e -> {
+            if (broadcastCheck.isSelected()) {
+                if (courseCombo.getValue() == null || messageField.getText().isEmpty()) {
+                    statusLabel.setText("Course and message are required.");
+                    statusLabel.setTextFill(Color.RED);
+                    return;
+                }
+                startBroadcast(courseCombo.getValue(), messageField.getText(), sendButton, statusLabel);
+                messageField.clear();
+                return;
+            }
             if (courseCombo.getValue() == null || studentCombo.getValue() == null || messageField.getText().isEmpty()) {
                 statusLabel.setText("Course, student, and message are required.");
                 statusLabel.setTextFill(Color.RED);
@@ -2281,7 +4610,7 @@ public class LearningManagementSystem extends Application {
                 sendMessage(getUserIdByUsername(currentUser), receiverId, courseId, messageField.getText());
                 statusLabel.setText("Message sent successfully!");
                 logActivity("Sent message to student: " + studentCombo.getValue());
-                addNotification(receiverId, "New message from instructor in course: " + courseCombo.getValue(), "Message");
+                addNotification(receiverId, courseId, "New message from instructor in course: " + courseCombo.getValue(), "Message");
                 messageField.clear();
             } catch (SQLException ex) {
                 statusLabel.setText("Error sending message: " + ex.getMessage());
@@ -2296,7 +4625,7 @@ public class LearningManagementSystem extends Application {
         formPane.add(new Label("Course:"), 0, 0);
         formPane.add(courseCombo, 1, 0);
         formPane.add(new Label("Student:"), 0, 1);
-        formPane.add(studentCombo, 1, 1);
+        formPane.add(new HBox(10, studentCombo, broadcastCheck), 1, 1);
         formPane.add(new Label("Message:"), 0, 2);
         formPane.add(messageField, 1, 2);
 
@@ -2317,21 +4646,374 @@ public class LearningManagementSystem extends Application {
         return students;
     }
 
+    // Finds or creates the conversation, stores the message and moves both participants' inbox rows to the
+    // top in one statement; only the receiver's unread count goes up
     private void sendMessage(int senderId, int receiverId, int courseId, String content) throws SQLException {
-        String sql = "INSERT INTO messages (sender_id, receiver_id, course_id, content, sent_time) VALUES (?, ?, ?, ?, ?)";
+        String sql = "WITH conv AS (INSERT INTO conversations (course_id, user_low, user_high, created_at) " +
+                "VALUES (?, LEAST(?, ?), GREATEST(?, ?), now()) " +
+                "ON CONFLICT (course_id, user_low, user_high) DO UPDATE SET course_id = EXCLUDED.course_id RETURNING id), " +
+                "msg AS (INSERT INTO messages (conversation_id, sender_id, receiver_id, course_id, content, sent_time) " +
+                "SELECT id, ?, ?, ?, ?, ? FROM conv RETURNING id, conversation_id, sent_time, content) " +
+                "INSERT INTO conversation_participants (conversation_id, user_id, unread, last_message_id, last_message_at, last_preview) " +
+                "SELECT m.conversation_id, p.user_id, CASE WHEN p.user_id = ? THEN 1 ELSE 0 END, m.id, m.sent_time, " +
+                "left(m.content, " + PREVIEW_LENGTH + ") FROM msg m CROSS JOIN (VALUES (?), (?)) p(user_id) " +
+                "ON CONFLICT (conversation_id, user_id) DO UPDATE SET unread = conversation_participants.unread + EXCLUDED.unread, " +
+                "last_message_id = EXCLUDED.last_message_id, last_message_at = EXCLUDED.last_message_at, last_preview = EXCLUDED.last_preview";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, senderId);
-            stmt.setInt(2, receiverId);
-            stmt.setInt(3, courseId);
-            stmt.setString(4, content);
-            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(1, courseId);
+            stmt.setInt(2, senderId);
+            stmt.setInt(3, receiverId);
+            stmt.setInt(4, senderId);
+            stmt.setInt(5, receiverId);
+            stmt.setInt(6, senderId);
+            stmt.setInt(7, receiverId);
+            stmt.setInt(8, courseId);
+            stmt.setString(9, content);
+            stmt.setTimestamp(10, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(11, receiverId);
+            stmt.setInt(12, senderId);
+            stmt.setInt(13, receiverId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Courses up to BROADCAST_CHUNK_SIZE students are messaged in one transaction on the UI connection.
+    // Larger ones are sent in the background on a connection of their own, one committed chunk at a time,
+    // so a huge course never holds one long transaction and the UI stays responsive.
+    private void startBroadcast(String courseTitle, String content, Button sendButton, Label statusLabel) {
+        try {
+            int courseId = getCourseIdByTitle(courseTitle);
+            int senderId = getUserIdByUsername(currentUser);
+            String notice = "New message from instructor in course: " + courseTitle;
+            int recipients = countEnrolledStudents(courseId);
+            if (recipients <= BROADCAST_CHUNK_SIZE) {
+                connection.setAutoCommit(false);
+                try {
+                    int sent = broadcastMessage(connection, senderId, courseId, content, notice, count -> { });
+                    connection.commit();
+                    statusLabel.setText("Message sent to " + sent + " student(s)!");
+                    statusLabel.setTextFill(Color.GREEN);
+                    logActivity("Broadcast message to course: " + courseTitle);
+                } catch (SQLException ex) {
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+                return;
+            }
+
+            Task<Integer> broadcast = new Task<>() {
+                @Override
+                protected Integer call() throws SQLException {
+                    try (Connection conn = openConnection()) {
+                        return broadcastMessage(conn, senderId, courseId, content, notice,
+                                sent -> updateMessage("Sending... " + sent + " of " + recipients + " student(s)"));
+                    }
+                }
+            };
+            statusLabel.setTextFill(Color.GREEN);
+            statusLabel.textProperty().bind(broadcast.messageProperty());
+            sendButton.setDisable(true);
+            broadcast.setOnSucceeded(ev -> {
+                statusLabel.textProperty().unbind();
+                sendButton.setDisable(false);
+                statusLabel.setText("Message sent to " + broadcast.getValue() + " student(s)!");
+                logActivity("Broadcast message to course: " + courseTitle);
+            });
+            broadcast.setOnFailed(ev -> {
+                statusLabel.textProperty().unbind();
+                sendButton.setDisable(false);
+                statusLabel.setText("Broadcast stopped: " + broadcast.getException().getMessage() + ". Students already messaged keep their copy.");
+                statusLabel.setTextFill(Color.RED);
+            });
+            Thread broadcastThread = new Thread(broadcast, "course-broadcast");
+            broadcastThread.setDaemon(true);
+            broadcastThread.start();
+        } catch (SQLException ex) {
+            statusLabel.setText("Error sending message: " + ex.getMessage());
+            statusLabel.setTextFill(Color.RED);
+        }
+    }
+
+    private int countEnrolledStudents(int courseId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM enrollments WHERE course_id = ?")) {
+            stmt.setInt(1, courseId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Messages every enrolled student, walking enrollments in keyset chunks of BROADCAST_CHUNK_SIZE. Each chunk is
+    // one statement that creates missing conversations, inserts the messages, moves the inbox rows to the top and
+    // adds the notifications (and queued email) straight from the enrollment rows. Broadcast notifications are
+    // plain rows, like deadline reminders, rather than folded into digests one by one.
+    private int broadcastMessage(Connection conn, int senderId, int courseId, String content, String notice,
+                                 IntConsumer progress) throws SQLException {
+        String sql = "WITH recipients AS (SELECT student_id FROM enrollments WHERE course_id = ? AND student_id > ? " +
+                "AND student_id <> ? ORDER BY student_id LIMIT ?), " +
+                "conv AS (INSERT INTO conversations (course_id, user_low, user_high, created_at) " +
+                "SELECT ?, LEAST(?, student_id), GREATEST(?, student_id), now() FROM recipients " +
+                "ON CONFLICT (course_id, user_low, user_high) DO UPDATE SET course_id = EXCLUDED.course_id " +
+                "RETURNING id, user_low, user_high), " +
+                "msg AS (INSERT INTO messages (conversation_id, sender_id, receiver_id, course_id, content, sent_time) " +
+                "SELECT id, ?, CASE WHEN user_low = ? THEN user_high ELSE user_low END, ?, ?, now() FROM conv " +
+                "RETURNING id, conversation_id, receiver_id, sent_time), " +
+                "inbox AS (INSERT INTO conversation_participants (conversation_id, user_id, unread, last_message_id, last_message_at, last_preview) " +
+                "SELECT m.conversation_id, p.user_id, CASE WHEN p.user_id = m.receiver_id THEN 1 ELSE 0 END, m.id, m.sent_time, " +
+                "left(?, " + PREVIEW_LENGTH + ") FROM msg m CROSS JOIN LATERAL (VALUES (m.receiver_id), (?)) p(user_id) " +
+                "ON CONFLICT (conversation_id, user_id) DO UPDATE SET unread = conversation_participants.unread + EXCLUDED.unread, " +
+                "last_message_id = EXCLUDED.last_message_id, last_message_at = EXCLUDED.last_message_at, last_preview = EXCLUDED.last_preview), " +
+                "notified AS (INSERT INTO notifications (user_id, course_id, content, type, created_at) " +
+                "SELECT receiver_id, ?, ?, 'Message', now() FROM msg RETURNING id, user_id, content), " +
+                "mailed AS (INSERT INTO email_outbox (notification_id, user_id, recipient, subject, body, dedup_key) " +
+                "SELECT n.id, n.user_id, u.email, 'LMS: Message', n.content, 'notification:' || n.id || ':1' " +
+                "FROM notified n JOIN users u ON u.id = n.user_id WHERE ?::boolean ON CONFLICT (dedup_key) DO NOTHING) " +
+                "SELECT (SELECT COUNT(*) FROM msg) AS sent, (SELECT MAX(student_id) FROM recipients) AS last_student";
+        int sent = 0;
+        int cursor = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            while (!Thread.currentThread().isInterrupted()) {
+                stmt.setInt(1, courseId);
+                stmt.setInt(2, cursor);
+                stmt.setInt(3, senderId);
+                stmt.setInt(4, BROADCAST_CHUNK_SIZE);
+                stmt.setInt(5, courseId);
+                stmt.setInt(6, senderId);
+                stmt.setInt(7, senderId);
+                stmt.setInt(8, senderId);
+                stmt.setInt(9, senderId);
+                stmt.setInt(10, courseId);
+                stmt.setString(11, content);
+                stmt.setString(12, content);
+                stmt.setInt(13, senderId);
+                stmt.setInt(14, courseId);
+                stmt.setString(15, notice);
+                stmt.setBoolean(16, emailNotifications);
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                sent += rs.getInt("sent");
+                progress.accept(sent);
+                cursor = rs.getInt("last_student");
+                if (rs.wasNull()) break;
+            }
+        }
+        return sent;
+    }
+
+    private VBox createInboxTab() {
+        VBox inboxPane = new VBox(10);
+        inboxPane.setPadding(new Insets(20));
+        inboxPane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Messages");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        TableView<Conversation> conversationTable = new TableView<>();
+        TableColumn<Conversation, String> withCol = new TableColumn<>("With");
+        withCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().otherUser));
+        TableColumn<Conversation, String> courseCol = new TableColumn<>("Course");
+        courseCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().courseTitle));
+        TableColumn<Conversation, String> previewCol = new TableColumn<>("Last Message");
+        previewCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().preview));
+        previewCol.setPrefWidth(300);
+        TableColumn<Conversation, String> unreadCol = new TableColumn<>("Unread");
+        unreadCol.setCellValueFactory(cellData -> new SimpleStringProperty(
+                cellData.getValue().unread > 0 ? String.valueOf(cellData.getValue().unread) : ""));
+        TableColumn<Conversation, String> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().lastMessageAt.toString()));
+        conversationTable.getColumns().addAll(withCol, courseCol, previewCol, unreadCol, dateCol);
+        conversationTable.setPlaceholder(new Label("No conversations yet"));
+        conversationTable.setPrefHeight(220);
+        Button moreConversationsButton = new Button("Load More");
+
+        TableView<ChatMessage> messageTable = new TableView<>();
+        TableColumn<ChatMessage, String> fromCol = new TableColumn<>("From");
+        fromCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().sender));
+        TableColumn<ChatMessage, String> sentCol = new TableColumn<>("Sent");
+        sentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().sentTime.toString()));
+        TableColumn<ChatMessage, String> contentCol = new TableColumn<>("Message");
+        contentCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().content));
+        contentCol.setPrefWidth(450);
+        messageTable.getColumns().addAll(fromCol, sentCol, contentCol);
+        messageTable.setPlaceholder(new Label("Select a conversation"));
+        Button olderMessagesButton = new Button("Load Older");
+        olderMessagesButton.setDisable(true);
+
+        TextArea replyField = new TextArea();
+        replyField.setPromptText("Type your reply here...");
+        replyField.setPrefRowCount(3);
+        Button replyButton = new Button("Send Reply");
+        replyButton.getStyleClass().add("btn-success");
+        replyButton.setDisable(true);
+
+        Label statusLabel = new Label();
+        statusLabel.setTextFill(Color.GREEN);
+
+        int userId = getUserIdByUsername(currentUser);
+        // Both lists are paged by keyset: the last row shown is the cursor for the next page
+        Runnable loadConversations = () -> {
+            try {
+                List<Conversation> items = conversationTable.getItems();
+                Conversation cursor = items.isEmpty() ? null : items.get(items.size() - 1);
+                List<Conversation> page = getConversations(userId, cursor);
+                boolean hasMore = page.size() > INBOX_PAGE_SIZE;
+                if (hasMore) page.remove(INBOX_PAGE_SIZE);
+                items.addAll(page);
+                moreConversationsButton.setDisable(!hasMore);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        };
+        Runnable loadOlderMessages = () -> {
+            Conversation selected = conversationTable.getSelectionModel().getSelectedItem();
+            if (selected == null) return;
+            try {
+                List<ChatMessage> items = messageTable.getItems();
+                Integer beforeId = items.isEmpty() ? null : items.get(0).id;
+                List<ChatMessage> page = getConversationMessages(selected.id, beforeId);
+                boolean hasMore = page.size() > MESSAGE_PAGE_SIZE;
+                if (hasMore) page.remove(MESSAGE_PAGE_SIZE);
+                Collections.reverse(page);
+                items.addAll(0, page);
+                olderMessagesButton.setDisable(!hasMore);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        };
+
+        conversationTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
+            messageTable.getItems().clear();
+            replyButton.setDisable(newValue == null);
+            if (newValue == null) return;
+            loadOlderMessages.run();
+            messageTable.scrollTo(messageTable.getItems().size() - 1);
+            if (newValue.unread > 0) {
+                try {
+                    markConversationRead(newValue.id, userId);
+                    newValue.unread = 0;
+                    conversationTable.refresh();
+                } catch (SQLException ex) {
+                    statusLabel.setText("Error: " + ex.getMessage());
+                    statusLabel.setTextFill(Color.RED);
+                }
+            }
+        });
+        moreConversationsButton.setOnAction(e -> loadConversations.run());
+        olderMessagesButton.setOnAction(e -> loadOlderMessages.run());
+
+        replyButton.setOnAction(e -> {
+            Conversation selected = conversationTable.getSelectionModel().getSelectedItem();
+            if (selected == null || replyField.getText().isBlank()) return;
+            try {
+                sendMessage(userId, selected.otherUserId, selected.courseId, replyField.getText());
+                addNotification(selected.otherUserId, selected.courseId, "New message from " + currentUser + " in course: " + selected.courseTitle, "Message");
+                logActivity("Sent message to: " + selected.otherUser);
+                replyField.clear();
+                // Only the newest page is reloaded; the reply is always the latest message
+                messageTable.getItems().clear();
+                loadOlderMessages.run();
+                messageTable.scrollTo(messageTable.getItems().size() - 1);
+                statusLabel.setText("Reply sent!");
+                statusLabel.setTextFill(Color.GREEN);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error sending message: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        });
+
+        loadConversations.run();
+
+        inboxPane.getChildren().addAll(titleLabel, conversationTable, moreConversationsButton,
+                olderMessagesButton, messageTable, replyField, replyButton, statusLabel);
+        return inboxPane;
+    }
+
+    // One inbox page for the user, newest first; fetches one extra row to tell whether another page exists
+    private List<Conversation> getConversations(int userId, Conversation after) throws SQLException {
+        String sql = "SELECT p.conversation_id, p.unread, p.last_message_at, p.last_preview, c.course_id, co.title AS course_title, " +
+                "u.id AS other_id, u.username AS other_name FROM conversation_participants p " +
+                "JOIN conversations c ON c.id = p.conversation_id " +
+                "JOIN users u ON u.id = CASE WHEN c.user_low = p.user_id THEN c.user_high ELSE c.user_low END " +
+                "LEFT JOIN courses co ON co.id = c.course_id WHERE p.user_id = ? " +
+                (after != null ? "AND (p.last_message_at, p.conversation_id) < (?, ?) " : "") +
+                "ORDER BY p.last_message_at DESC, p.conversation_id DESC LIMIT ?";
+        List<Conversation> conversations = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setInt(index++, userId);
+            if (after != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(after.lastMessageAt));
+                stmt.setInt(index++, after.id);
+            }
+            stmt.setInt(index, INBOX_PAGE_SIZE + 1);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                conversations.add(new Conversation(
+                        rs.getInt("conversation_id"),
+                        rs.getInt("course_id"),
+                        rs.getString("course_title"),
+                        rs.getInt("other_id"),
+                        rs.getString("other_name"),
+                        rs.getString("last_preview"),
+                        rs.getInt("unread"),
+                        rs.getTimestamp("last_message_at").toLocalDateTime()
+                ));
+            }
+        }
+        return conversations;
+    }
+
+    // Messages older than beforeId (or the newest when null), newest first, plus one row to detect more
+    private List<ChatMessage> getConversationMessages(int conversationId, Integer beforeId) throws SQLException {
+        String sql = "SELECT m.id, u.username, m.content, m.sent_time FROM messages m JOIN users u ON u.id = m.sender_id " +
+                "WHERE m.conversation_id = ? " + (beforeId != null ? "AND m.id < ? " : "") +
+                "ORDER BY m.id DESC LIMIT ?";
+        List<ChatMessage> messages = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setInt(index++, conversationId);
+            if (beforeId != null) {
+                stmt.setInt(index++, beforeId);
+            }
+            stmt.setInt(index, MESSAGE_PAGE_SIZE + 1);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                messages.add(new ChatMessage(
+                        rs.getInt("id"),
+                        rs.getString("username"),
+                        rs.getString("content"),
+                        rs.getTimestamp("sent_time").toLocalDateTime()
+                ));
+            }
+        }
+        return messages;
+    }
+
+    private void markConversationRead(int conversationId, int userId) throws SQLException {
+        String sql = "WITH seen AS (UPDATE messages SET is_read = TRUE " +
+                "WHERE conversation_id = ? AND receiver_id = ? AND is_read = FALSE RETURNING 1) " +
+                "UPDATE conversation_participants SET unread = 0 WHERE conversation_id = ? AND user_id = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, conversationId);
+            stmt.setInt(2, userId);
+            stmt.setInt(3, conversationId);
+            stmt.setInt(4, userId);
             stmt.executeUpdate();
         }
     }
 
     private void showStudentDashboard() {
+        showView("studentDashboard", this::createStudentDashboard);
+        logActivity("Accessed student dashboard");
+    }
+
+    private TabPane createStudentDashboard() {
         TabPane tabPane = new TabPane();
-        tabPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        tabPane.getStyleClass().add("content-pane");
 
         Tab overviewTab = new Tab("Overview");
         overviewTab.setClosable(false);
@@ -2339,23 +5021,28 @@ public class LearningManagementSystem extends Application {
         Tab coursesTab = new Tab("Courses");
         coursesTab.setClosable(false);
         coursesTab.setContent(createStudentCoursesTab());
+        Tab searchTab = new Tab("Search");
+        searchTab.setClosable(false);
+        searchTab.setContent(createMaterialSearchTab());
         Tab notificationsTab = new Tab("Notifications");
         notificationsTab.setClosable(false);
         notificationsTab.setContent(createNotificationsTab());
+        Tab inboxTab = new Tab("Messages");
+        inboxTab.setClosable(false);
+        inboxTab.setContent(createInboxTab());
 
-        tabPane.getTabs().addAll(overviewTab, coursesTab, notificationsTab);
-        rootLayout.setCenter(tabPane);
-        logActivity("Accessed student dashboard");
+        tabPane.getTabs().addAll(overviewTab, coursesTab, searchTab, notificationsTab, inboxTab);
+        return tabPane;
     }
 
     private VBox createStudentOverviewTab() {
         VBox overviewPane = new VBox(10);
         overviewPane.setPadding(new Insets(20));
-        overviewPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        overviewPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Student Overview");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TableView<Enrollment> courseTable = new TableView<>();
         TableColumn<Enrollment, String> courseCol = new TableColumn<>("Course");
@@ -2412,11 +5099,11 @@ public class LearningManagementSystem extends Application {
     private VBox createStudentCoursesTab() {
         VBox coursesPane = new VBox(10);
         coursesPane.setPadding(new Insets(20));
-        coursesPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        coursesPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("My Courses");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         ComboBox<String> courseCombo = new ComboBox<>();
         courseCombo.getItems().addAll(getStudentCourses());
@@ -2462,26 +5149,163 @@ public class LearningManagementSystem extends Application {
         return courses;
     }
 
+    private VBox createMaterialSearchTab() {
+        VBox searchPane = new VBox(10);
+        searchPane.setPadding(new Insets(20));
+        searchPane.getStyleClass().add("content-pane");
+
+        Label titleLabel = new Label("Search Materials");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        titleLabel.getStyleClass().add("title-label");
+
+        TextField queryField = new TextField();
+        queryField.setPromptText("Search your courses, e.g. \"linear regression\" -python");
+        queryField.setPrefWidth(400);
+        Button searchButton = new Button("Search");
+        searchButton.getStyleClass().add("btn-primary");
+        HBox searchBar = new HBox(10, queryField, searchButton);
+        searchBar.setAlignment(Pos.CENTER_LEFT);
+
+        TableView<SearchResult> resultsTable = new TableView<>();
+        TableColumn<SearchResult, String> courseCol = new TableColumn<>("Course");
+        courseCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().courseTitle));
+        TableColumn<SearchResult, String> titleCol = new TableColumn<>("Title");
+        titleCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
+        TableColumn<SearchResult, String> snippetCol = new TableColumn<>("Match");
+        snippetCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().snippet));
+        snippetCol.setPrefWidth(450);
+        TableColumn<SearchResult, String> dateCol = new TableColumn<>("Upload Date");
+        dateCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().uploadDate.toString()));
+        resultsTable.getColumns().addAll(courseCol, titleCol, snippetCol, dateCol);
+        resultsTable.setPlaceholder(new Label("Enter a search to find materials in your courses"));
+
+        TextArea contentArea = new TextArea();
+        contentArea.setEditable(false);
+        contentArea.setPrefHeight(200);
+
+        Button previousButton = new Button("Previous");
+        Button nextButton = new Button("Next");
+        Label pageLabel = new Label();
+        HBox pagingPane = new HBox(10, previousButton, pageLabel, nextButton);
+        pagingPane.setAlignment(Pos.CENTER_LEFT);
+        previousButton.setDisable(true);
+        nextButton.setDisable(true);
+
+        Label statusLabel = new Label();
+        int[] page = {0};
+        String[] activeQuery = {""};
+
+        Runnable runSearch = () -> {
+            try {
+                long start = System.nanoTime();
+                List<SearchResult> results = searchMaterials(activeQuery[0], page[0]);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                boolean hasMore = results.size() > SEARCH_PAGE_SIZE;
+                if (hasMore) results.remove(SEARCH_PAGE_SIZE);
+                resultsTable.setItems(FXCollections.observableArrayList(results));
+                resultsTable.setPlaceholder(new Label("No materials match your search"));
+                contentArea.clear();
+                previousButton.setDisable(page[0] == 0);
+                nextButton.setDisable(!hasMore);
+                pageLabel.setText("Page " + (page[0] + 1));
+                statusLabel.setText(results.size() + " result(s) in " + elapsedMs + " ms");
+                statusLabel.setTextFill(Color.GREEN);
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
+            }
+        };
+
+        EventHandler<ActionEvent> startSearch = e -> {
+            if (queryField.getText().isBlank()) return;
+            activeQuery[0] = queryField.getText().trim();
+            page[0] = 0;
+            runSearch.run();
+        };
+        searchButton.setOnAction(startSearch);
+        queryField.setOnAction(startSearch);
+        previousButton.setOnAction(e -> {
+            page[0]--;
+            runSearch.run();
+        });
+        nextButton.setOnAction(e -> {
+            page[0]++;
+            runSearch.run();
+        });
+
+        resultsTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
+            if (newValue != null) {
+                try {
+                    contentArea.setText(getLargeText("materials", "content", newValue.materialId));
+                } catch (SQLException ex) {
+                    showAlert("Error", "Failed to load material content: " + ex.getMessage());
+                }
+            }
+        });
+
+        searchPane.getChildren().addAll(titleLabel, searchBar, resultsTable, pagingPane, contentArea, statusLabel);
+        return searchPane;
+    }
+
+    // Ranked search over the current student's courses. The GIN index finds the matches, only the requested page
+    // is ranked into the result and ts_headline runs on that page alone. One extra row is fetched to detect a next page.
+    private List<SearchResult> searchMaterials(String query, int page) throws SQLException {
+        String sql = "WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query), " +
+                "hits AS (" +
+                "SELECT m.id, ts_rank_cd(m.search_vector, q.query) AS rank FROM materials m, q " +
+                "WHERE m.search_vector @@ q.query " +
+                "AND m.course_id IN (SELECT course_id FROM enrollments WHERE student_id = ?) " +
+                "ORDER BY rank DESC, m.id LIMIT ? OFFSET ?) " +
+                "SELECT m.id, m.title, m.upload_date, c.title AS course_title, " +
+                "ts_headline('english', left(coalesce(m.content, ''), " + SEARCH_INDEXED_CHARS + "), q.query, " +
+                "'MaxFragments=2, MaxWords=18, MinWords=6, StartSel=[, StopSel=]') AS snippet " +
+                "FROM hits h JOIN materials m ON m.id = h.id JOIN courses c ON c.id = m.course_id, q " +
+                "ORDER BY h.rank DESC, h.id";
+        List<SearchResult> results = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, query);
+            stmt.setInt(2, getUserIdByUsername(currentUser));
+            stmt.setInt(3, SEARCH_PAGE_SIZE + 1);
+            stmt.setInt(4, page * SEARCH_PAGE_SIZE);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                results.add(new SearchResult(
+                        rs.getInt("id"),
+                        rs.getString("course_title"),
+                        rs.getString("title"),
+                        rs.getString("snippet").replaceAll("\\s+", " "),
+                        rs.getDate("upload_date").toLocalDate()
+                ));
+            }
+        }
+        return results;
+    }
+
     private VBox createMaterialsView(int courseId) {
         VBox materialsPane = new VBox(10);
         materialsPane.setPadding(new Insets(10));
-        materialsPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        materialsPane.getStyleClass().add("content-pane");
 
         TableView<Material> materialsTable = new TableView<>();
         TableColumn<Material, String> titleCol = new TableColumn<>("Title");
         titleCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
         TableColumn<Material, String> dateCol = new TableColumn<>("Upload Date");
         dateCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().uploadDate.toString()));
-        materialsTable.getColumns().addAll(titleCol, dateCol);
+        TableColumn<Material, String> fileCol = new TableColumn<>("File");
+        fileCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().fileName != null
+                ? cellData.getValue().fileName + " (" + formatSize(cellData.getValue().fileSize) + ")" : ""));
+        materialsTable.getColumns().addAll(titleCol, dateCol, fileCol);
 
         TextArea contentArea = new TextArea();
         contentArea.setEditable(false);
         contentArea.setPrefHeight(200);
 
         Button downloadButton = new Button("Download Material");
-        downloadButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #2196F3; -fx-text-fill: white;" : "-fx-background-color: #42A5F5; -fx-text-fill: white;");
+        downloadButton.getStyleClass().add("btn-primary");
 
-        try (PreparedStatement stmt = connection.prepareStatement("SELECT id, title, content, upload_date, file_path FROM materials WHERE course_id = ?")) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT id, title, COALESCE(octet_length(content), 0) AS content_size, upload_date, file_path, file_name, file_size " +
+                        "FROM materials WHERE course_id = ?")) {
             stmt.setInt(1, courseId);
             ResultSet rs = stmt.executeQuery();
             List<Material> materials = new ArrayList<>();
@@ -2489,9 +5313,11 @@ public class LearningManagementSystem extends Application {
                 materials.add(new Material(
                         rs.getInt("id"),
                         rs.getString("title"),
-                        rs.getString("content"),
+                        rs.getLong("content_size"),
                         rs.getDate("upload_date").toLocalDate(),
-                        rs.getString("file_path")
+                        rs.getString("file_path"),
+                        rs.getString("file_name"),
+                        rs.getLong("file_size")
                 ));
             }
             materialsTable.setItems(FXCollections.observableArrayList(materials));
@@ -2501,7 +5327,11 @@ public class LearningManagementSystem extends Application {
 
         materialsTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
             if (newValue != null) {
-                contentArea.setText(newValue.content);
+                try {
+                    contentArea.setText(newValue.contentSize > 0 ? getLargeText("materials", "content", newValue.id) : "");
+                } catch (SQLException ex) {
+                    showAlert("Error", "Failed to load material content: " + ex.getMessage());
+                }
             }
         });
 
@@ -2509,10 +5339,11 @@ public class LearningManagementSystem extends Application {
             Material selected = materialsTable.getSelectionModel().getSelectedItem();
             if (selected != null) {
                 try {
-                    downloadMaterial(selected);
-                    showAlert("Success", "Material downloaded successfully!");
-                    logActivity("Downloaded material: " + selected.title);
-                } catch (IOException ex) {
+                    if (downloadMaterial(selected)) {
+                        showAlert("Success", "Material downloaded successfully!");
+                        logActivity("Downloaded material: " + selected.title);
+                    }
+                } catch (IOException | SQLException ex) {
                     showAlert("Error", "Failed to download material: " + ex.getMessage());
                 }
             }
@@ -2522,26 +5353,143 @@ public class LearningManagementSystem extends Application {
         return materialsPane;
     }
 
-    private void downloadMaterial(Material material) throws IOException {
-        if (material.filePath != null && !material.filePath.isEmpty()) {
-            // In a real application, you would implement file download logic here
-            // For example, using Java's File and InputStream classes
-            showAlert("Download", "Simulated download of: " + material.filePath);
-        } else if (material.content != null && !material.content.isEmpty()) {
-            // Save content as text file
-            String fileName = material.title.replaceAll("[^a-zA-Z0-9.-]", "_") + ".txt";
-            try (PrintWriter writer = new PrintWriter(fileName)) {
-                writer.println(material.content);
+    private boolean downloadMaterial(Material material) throws IOException, SQLException {
+        boolean hasFile = material.filePath != null && !material.filePath.isEmpty();
+        if (!hasFile && material.contentSize <= 0) {
+            throw new IOException("No content available for download");
+        }
+        if (hasFile && materialStore == null) {
+            throw new IOException("File attachments are unavailable: lms.files.root is not configured on this machine");
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Material");
+        if (hasFile) {
+            chooser.setInitialFileName(material.fileName != null ? material.fileName : new File(material.filePath).getName());
+        } else {
+            chooser.setInitialFileName(material.title.replaceAll("[^a-zA-Z0-9.-]", "_") + ".txt");
+        }
+        File target = chooser.showSaveDialog(primaryStage);
+        if (target == null) return false;
+        if (hasFile) {
+            materialStore.copyTo(material.filePath, target.toPath());
+        } else {
+            // Text materials are streamed straight from the database; the shared row is left untouched
+            try (Writer writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+                streamLargeText("materials", "content", material.id, writer);
+            }
+        }
+        return true;
+    }
+
+    // Uploads a material file in checksummed chunks on its own connection, resuming an interrupted session if one matches
+    private Task<MaterialFileStore.StoredFile> createUploadTask(int instructorId, int courseId, File file) {
+        return new Task<>() {
+            @Override
+            protected MaterialFileStore.StoredFile call() throws Exception {
+                updateMessage("Preparing upload...");
+                try (Connection uploadConnection = openConnection()) {
+                    UploadSession session = findOrCreateUploadSession(uploadConnection, instructorId, courseId, file);
+                    Path staging = materialStore.stagingFile("session-" + session.id + ".part");
+                    String checkpointSql = "WITH chunk AS (INSERT INTO upload_chunks (session_id, chunk_index, checksum) VALUES (?, ?, ?) " +
+                            "ON CONFLICT (session_id, chunk_index) DO UPDATE SET checksum = EXCLUDED.checksum) " +
+                            "UPDATE upload_sessions SET bytes_received = ? WHERE id = ?";
+                    try (PreparedStatement checkpoint = uploadConnection.prepareStatement(checkpointSql)) {
+                        MaterialFileStore.StoredFile stored = new ChunkedUploader(materialStore, session.chunkSize).upload(
+                                file.toPath(), staging, session.chunkChecksums,
+                                (chunkIndex, checksum, bytesReceived) -> {
+                                    try {
+                                        checkpoint.setInt(1, session.id);
+                                        checkpoint.setInt(2, chunkIndex);
+                                        checkpoint.setLong(3, checksum);
+                                        checkpoint.setLong(4, bytesReceived);
+                                        checkpoint.setInt(5, session.id);
+                                        checkpoint.executeUpdate();
+                                    } catch (SQLException e) {
+                                        throw new IOException("Failed to record upload progress: " + e.getMessage(), e);
+                                    }
+                                },
+                                (bytesReceived, totalBytes, bytesPerSecond) -> {
+                                    updateProgress(bytesReceived, totalBytes);
+                                    updateMessage(String.format("%s of %s at %.1f MB/s", formatSize(bytesReceived),
+                                            formatSize(totalBytes), bytesPerSecond / (1024 * 1024)));
+                                },
+                                this::isCancelled);
+                        completeUploadSession(uploadConnection, session.id);
+                        Files.deleteIfExists(staging);
+                        return stored;
+                    }
+                }
+            }
+        };
+    }
+
+    private UploadSession findOrCreateUploadSession(Connection conn, int instructorId, int courseId, File file) throws SQLException {
+        String findSql = "SELECT id, chunk_size FROM upload_sessions WHERE instructor_id = ? AND course_id = ? AND file_name = ? " +
+                "AND file_size = ? AND source_modified = ? AND status = 'Active' ORDER BY id DESC LIMIT 1";
+        try (PreparedStatement stmt = conn.prepareStatement(findSql)) {
+            stmt.setInt(1, instructorId);
+            stmt.setInt(2, courseId);
+            stmt.setString(3, file.getName());
+            stmt.setLong(4, file.length());
+            stmt.setLong(5, file.lastModified());
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                int sessionId = rs.getInt("id");
+                return new UploadSession(sessionId, rs.getInt("chunk_size"), getUploadChunkChecksums(conn, sessionId));
+            }
+        }
+
+        String createSql = "INSERT INTO upload_sessions (instructor_id, course_id, file_name, file_size, source_modified, chunk_size, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id";
+        try (PreparedStatement stmt = conn.prepareStatement(createSql)) {
+            stmt.setInt(1, instructorId);
+            stmt.setInt(2, courseId);
+            stmt.setString(3, file.getName());
+            stmt.setLong(4, file.length());
+            stmt.setLong(5, file.lastModified());
+            stmt.setInt(6, ChunkedUploader.DEFAULT_CHUNK_SIZE);
+            stmt.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return new UploadSession(rs.getInt("id"), ChunkedUploader.DEFAULT_CHUNK_SIZE, new long[0]);
+        }
+    }
+
+    // Checksums of the contiguous run of chunks recorded from chunk 0 onwards
+    private long[] getUploadChunkChecksums(Connection conn, int sessionId) throws SQLException {
+        List<Long> checksums = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT chunk_index, checksum FROM upload_chunks WHERE session_id = ? ORDER BY chunk_index")) {
+            stmt.setInt(1, sessionId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next() && rs.getInt("chunk_index") == checksums.size()) {
+                checksums.add(rs.getLong("checksum"));
             }
-        } else {
-            throw new IOException("No content available for download");
         }
+        return checksums.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void completeUploadSession(Connection conn, int sessionId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "WITH done AS (UPDATE upload_sessions SET status = 'Complete' WHERE id = ?) DELETE FROM upload_chunks WHERE session_id = ?")) {
+            stmt.setInt(1, sessionId);
+            stmt.setInt(2, sessionId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.1f GB", bytes / (1024.0 * 1024 * 1024));
     }
 
     private VBox createAssignmentsView(int courseId) {
         VBox assignmentsPane = new VBox(10);
         assignmentsPane.setPadding(new Insets(10));
-        assignmentsPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        assignmentsPane.getStyleClass().add("content-pane");
 
         TableView<Assignment> assignmentsTable = new TableView<>();
         TableColumn<Assignment, String> titleCol = new TableColumn<>("Title");
@@ -2561,7 +5509,7 @@ public class LearningManagementSystem extends Application {
         submissionArea.setPrefRowCount(5);
 
         Button submitButton = new Button("Submit Assignment");
-        submitButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        submitButton.getStyleClass().add("btn-success");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -2572,6 +5520,19 @@ public class LearningManagementSystem extends Application {
             showAlert("Error", "Failed to load assignments: " + e.getMessage());
         }
 
+        assignmentsTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
+            // Cleared on every change so text from another assignment is never submitted under this one
+            submissionArea.clear();
+            if (newValue != null && newValue.submissionId != null) {
+                try {
+                    submissionArea.setText(getLargeText("student_assignments", "submission", newValue.submissionId));
+                } catch (SQLException ex) {
+                    statusLabel.setText("Error: " + ex.getMessage());
+                    statusLabel.setTextFill(Color.RED);
+                }
+            }
+        });
+
         submitButton.setOnAction(e -> {
             Assignment selected = assignmentsTable.getSelectionModel().getSelectedItem();
             if (selected != null && !submissionArea.getText().isEmpty()) {
@@ -2580,7 +5541,7 @@ public class LearningManagementSystem extends Application {
                     assignmentsTable.setItems(FXCollections.observableArrayList(getStudentAssignments(courseId)));
                     statusLabel.setText("Assignment submitted successfully!");
                     logActivity("Submitted assignment: " + selected.title);
-                    addNotification(getUserIdByUsername(currentUser), "Assignment submitted: " + selected.title, "Submission");
+                    addNotification(getUserIdByUsername(currentUser), courseId, "Assignment submitted: " + selected.title, "Submission");
                     submissionArea.clear();
                 } catch (SQLException ex) {
                     statusLabel.setText("Error: " + ex.getMessage());
@@ -2595,16 +5556,19 @@ public class LearningManagementSystem extends Application {
 
     private List<Assignment> getStudentAssignments(int courseId) throws SQLException {
         List<Assignment> assignments = new ArrayList<>();
-        String sql = "SELECT sa.id, a.title, sa.submission, sa.grade, sa.feedback, a.deadline " +
-                "FROM student_assignments sa JOIN assignments a ON sa.assignment_id = a.id " +
-                "WHERE a.course_id = ? AND sa.student_id = ?";
+        // Every assignment of the course, with the student's row when they have submitted
+        String sql = "SELECT a.id, sa.id AS submission_id, a.title, left(sa.submission, ?) AS submission, sa.grade, sa.feedback, a.deadline " +
+                "FROM assignments a LEFT JOIN student_assignments sa ON sa.assignment_id = a.id AND sa.student_id = ? " +
+                "WHERE a.course_id = ? ORDER BY a.deadline, a.id";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
+            stmt.setInt(1, PREVIEW_LENGTH);
             stmt.setInt(2, getUserIdByUsername(currentUser));
+            stmt.setInt(3, courseId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 assignments.add(new Assignment(
                         rs.getInt("id"),
+                        rs.getObject("submission_id") != null ? rs.getInt("submission_id") : null,
                         rs.getString("title"),
                         rs.getString("submission"),
                         rs.getObject("grade") != null ? rs.getInt("grade") : null,
@@ -2616,12 +5580,15 @@ public class LearningManagementSystem extends Application {
         return assignments;
     }
 
+    // Creates the student's row on first submission and replaces the submission on later ones
     private void submitAssignment(int assignmentId, String submission) throws SQLException {
-        String sql = "UPDATE student_assignments SET submission = ?, submitted_date = ? WHERE id = ?";
+        String sql = "INSERT INTO student_assignments (assignment_id, student_id, submission, submitted_date) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (assignment_id, student_id) DO UPDATE SET submission = EXCLUDED.submission, submitted_date = EXCLUDED.submitted_date";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, submission);
-            stmt.setDate(2, Date.valueOf(LocalDate.now()));
-            stmt.setInt(3, assignmentId);
+            stmt.setInt(1, assignmentId);
+            stmt.setInt(2, getUserIdByUsername(currentUser));
+            stmt.setString(3, submission);
+            stmt.setDate(4, Date.valueOf(LocalDate.now()));
             stmt.executeUpdate();
         }
     }
@@ -2629,126 +5596,310 @@ public class LearningManagementSystem extends Application {
     private VBox createQuizzesView(int courseId) {
         VBox quizzesPane = new VBox(10);
         quizzesPane.setPadding(new Insets(10));
-        quizzesPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        quizzesPane.getStyleClass().add("content-pane");
 
         TableView<Quiz> quizzesTable = new TableView<>();
         TableColumn<Quiz, String> titleCol = new TableColumn<>("Title");
         titleCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().title));
-        quizzesTable.getColumns().addAll(titleCol);
-
-        VBox questionPane = new VBox(10);
-        Label questionLabel = new Label();
-        RadioButton option1 = new RadioButton();
-        RadioButton option2 = new RadioButton();
-        RadioButton option3 = new RadioButton();
-        RadioButton option4 = new RadioButton();
-        ToggleGroup toggleGroup = new ToggleGroup();
-        option1.setToggleGroup(toggleGroup);
-        option2.setToggleGroup(toggleGroup);
-        option3.setToggleGroup(toggleGroup);
-        option4.setToggleGroup(toggleGroup);
-
-        Button submitButton = new Button("Submit Answer");
-        submitButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        TableColumn<Quiz, String> questionsCol = new TableColumn<>("Questions");
+        questionsCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().questionCount)));
+        TableColumn<Quiz, String> pointsCol = new TableColumn<>("Points");
+        pointsCol.setCellValueFactory(cellData -> new SimpleStringProperty(String.valueOf(cellData.getValue().totalPoints)));
+        TableColumn<Quiz, String> statusCol = new TableColumn<>("Status");
+        statusCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().closed ? "Closed" : "Open"));
+        quizzesTable.getColumns().addAll(titleCol, questionsCol, pointsCol, statusCol);
+
+        Label attemptsLabel = new Label();
+        attemptsLabel.getStyleClass().add("section-text");
+        VBox questionPane = new VBox(15);
+        questionPane.setPadding(new Insets(10));
+        ScrollPane questionScroll = new ScrollPane(questionPane);
+        questionScroll.setFitToWidth(true);
+        questionScroll.setPrefHeight(350);
+        // One toggle group per question, in question order; each option carries its original number
+        List<ToggleGroup> answerGroups = new ArrayList<>();
+
+        Button submitButton = new Button("Submit Answers");
+        submitButton.getStyleClass().add("btn-success");
+        submitButton.setDisable(true);
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
 
+        int studentId = getUserIdByUsername(currentUser);
         try {
-            quizzesTable.setItems(FXCollections.observableArrayList(getQuizzes(courseId)));
+            quizzesTable.setItems(FXCollections.observableArrayList(getQuizzes(courseId, studentId)));
         } catch (SQLException e) {
             showAlert("Error", "Failed to load quizzes: " + e.getMessage());
         }
 
         quizzesTable.getSelectionModel().selectedItemProperty().addListener((obs, old, newValue) -> {
-            if (newValue != null) {
-                questionLabel.setText(newValue.question);
-                option1.setText(newValue.options[0]);
-                option2.setText(newValue.options[1]);
-                option3.setText(newValue.options[2]);
-                option4.setText(newValue.options[3]);
-                toggleGroup.selectToggle(null);
+            questionPane.getChildren().clear();
+            answerGroups.clear();
+            statusLabel.setText("");
+            if (newValue == null) {
+                attemptsLabel.setText("");
+                submitButton.setDisable(true);
+                return;
+            }
+            try {
+                // Questions are loaded and compiled into an answer key once per quiz
+                if (newValue.answerKey == null) {
+                    newValue.questions = getQuizQuestions(connection, newValue.id);
+                    newValue.answerKey = compileAnswerKey(newValue.questions);
+                }
+                for (QuizQuestion question : newValue.questions) {
+                    Label questionLabel = new Label(question.position + ". " + question.question + " (" + question.points + " pts)");
+                    questionLabel.setWrapText(true);
+                    VBox block = new VBox(5, questionLabel);
+                    ToggleGroup group = new ToggleGroup();
+                    int[] order = newValue.shuffleOptions
+                            ? QuizAnswerKey.optionOrder(question.options.length, newValue.id, question.position, studentId)
+                            : null;
+                    for (int i = 0; i < question.options.length; i++) {
+                        int option = order != null ? order[i] : i + 1;
+                        RadioButton optionButton = new RadioButton(question.options[option - 1]);
+                        optionButton.setUserData(option);
+                        optionButton.setToggleGroup(group);
+                        block.getChildren().add(optionButton);
+                    }
+                    answerGroups.add(group);
+                    questionPane.getChildren().add(block);
+                }
+                attemptsLabel.setText(newValue.attemptsText());
+                submitButton.setDisable(!newValue.canAttempt());
+            } catch (SQLException ex) {
+                statusLabel.setText("Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
             }
         });
 
         submitButton.setOnAction(e -> {
             Quiz selected = quizzesTable.getSelectionModel().getSelectedItem();
-            RadioButton selectedOption = (RadioButton) toggleGroup.getSelectedToggle();
-            if (selected != null && selectedOption != null) {
-                try {
-                    int selectedIndex = List.of(option1, option2, option3, option4).indexOf(selectedOption) + 1;
-                    submitQuizAnswer(selected.id, selectedIndex);
-                    statusLabel.setText("Answer submitted successfully!");
-                    logActivity("Submitted quiz answer for: " + selected.title);
-                    addNotification(getUserIdByUsername(currentUser), "Quiz answer submitted: " + selected.title, "Submission");
-                    toggleGroup.selectToggle(null);
-
-                    // Auto-grade the quiz
-                    int score = (selectedIndex == selected.correctOption) ? selected.totalPoints : 0;
-                    updateQuizGrade(selected.id, getUserIdByUsername(currentUser), score);
-                    updateStudentProgress(courseId, getUserIdByUsername(currentUser));
-                } catch (SQLException ex) {
-                    statusLabel.setText("Error: " + ex.getMessage());
+            if (selected == null || selected.answerKey == null) return;
+            int[] answers = new int[answerGroups.size()];
+            int unanswered = 0;
+            for (int i = 0; i < answers.length; i++) {
+                Toggle toggle = answerGroups.get(i).getSelectedToggle();
+                answers[i] = toggle != null ? (Integer) toggle.getUserData() : 0;
+                if (toggle == null) unanswered++;
+            }
+            if (unanswered == answers.length) {
+                statusLabel.setText("Answer at least one question before submitting.");
+                statusLabel.setTextFill(Color.RED);
+                return;
+            }
+            try {
+                int score = selected.answerKey.score(answers);
+                QuizAttempt attempt = submitQuizAttempt(selected.id, studentId, answers, score);
+                if (attempt == null) {
+                    statusLabel.setText("This quiz is closed or you have no attempts left.");
                     statusLabel.setTextFill(Color.RED);
+                    submitButton.setDisable(true);
+                    return;
                 }
+                selected.attemptsUsed = attempt.attemptNo;
+                attemptsLabel.setText(selected.attemptsText());
+                submitButton.setDisable(!selected.canAttempt());
+                statusLabel.setText("Attempt " + attempt.attemptNo + " scored " + attempt.score + "/" + selected.totalPoints
+                        + (unanswered > 0 ? " (" + unanswered + " unanswered)." : "."));
+                statusLabel.setTextFill(Color.GREEN);
+                answerGroups.forEach(group -> group.selectToggle(null));
+                logActivity("Submitted quiz answers for: " + selected.title);
+
+                // Progress, at-risk flags and the notification follow on the maintenance connection
+                runInBackground("quiz bookkeeping", conn -> {
+                    updateStudentProgress(conn, courseId, List.of(studentId));
+                    addNotification(conn, studentId, courseId, "Quiz answers submitted: " + selected.title, "Submission");
+                    return 0;
+                });
+            } catch (SQLException ex) {
+                statusLabel.setText("23505".equals(ex.getSQLState())
+                        ? "Another attempt was submitted at the same time. Please try again."
+                        : "Error: " + ex.getMessage());
+                statusLabel.setTextFill(Color.RED);
             }
         });
 
-        questionPane.getChildren().addAll(questionLabel, option1, option2, option3, option4);
-        quizzesPane.getChildren().addAll(quizzesTable, questionPane, submitButton, statusLabel);
+        quizzesPane.getChildren().addAll(quizzesTable, attemptsLabel, questionScroll, submitButton, statusLabel);
         return quizzesPane;
     }
 
-    private List<Quiz> getQuizzes(int courseId) throws SQLException {
+    // Quizzes of the course with their question count and the number of attempts the student has used on each
+    private List<Quiz> getQuizzes(int courseId, int studentId) throws SQLException {
         List<Quiz> quizzes = new ArrayList<>();
-        String sql = "SELECT id, title, question, options, correct_option, total_points FROM quizzes WHERE course_id = ?";
+        String sql = "SELECT q.id, q.title, q.total_points, q.max_attempts, q.scoring_policy, q.shuffle_options, " +
+                "q.closed_at IS NOT NULL AS closed, " +
+                "(SELECT COUNT(*) FROM quiz_questions qq WHERE qq.quiz_id = q.id) AS question_count, " +
+                "(SELECT COALESCE(MAX(attempt_no), 0) FROM quiz_submissions qs WHERE qs.quiz_id = q.id AND qs.student_id = ?) AS attempts_used " +
+                "FROM quizzes q WHERE q.course_id = ? ORDER BY q.id";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                quizzes.add(new Quiz(
-                        rs.getInt("id"),
-                        courseId,
-                        rs.getString("title"),
+                Quiz quiz = new Quiz(rs.getInt("id"), courseId, rs.getString("title"), rs.getInt("total_points"));
+                quiz.maxAttempts = rs.getObject("max_attempts") != null ? rs.getInt("max_attempts") : null;
+                quiz.scoringPolicy = rs.getString("scoring_policy");
+                quiz.shuffleOptions = rs.getBoolean("shuffle_options");
+                quiz.closed = rs.getBoolean("closed");
+                quiz.questionCount = rs.getInt("question_count");
+                quiz.attemptsUsed = rs.getInt("attempts_used");
+                quizzes.add(quiz);
+            }
+        }
+        return quizzes;
+    }
+
+    private List<QuizQuestion> getQuizQuestions(Connection conn, int quizId) throws SQLException {
+        List<QuizQuestion> questions = new ArrayList<>();
+        String sql = "SELECT position, question, options, correct_option, points FROM quiz_questions WHERE quiz_id = ? ORDER BY position";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, quizId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                questions.add(new QuizQuestion(
+                        rs.getInt("position"),
                         rs.getString("question"),
                         (String[]) rs.getArray("options").getArray(),
                         rs.getInt("correct_option"),
-                        rs.getInt("total_points")
+                        rs.getInt("points")
                 ));
             }
         }
-        return quizzes;
+        return questions;
+    }
+
+    private static QuizAnswerKey compileAnswerKey(List<QuizQuestion> questions) {
+        int[] correctOptions = new int[questions.size()];
+        int[] points = new int[questions.size()];
+        for (int i = 0; i < correctOptions.length; i++) {
+            correctOptions[i] = questions.get(i).correctOption;
+            points[i] = questions.get(i).points;
+        }
+        return new QuizAnswerKey(correctOptions, points);
     }
 
-    private void submitQuizAnswer(int quizId, int selectedOption) throws SQLException {
-        String sql = "INSERT INTO quiz_submissions (quiz_id, student_id, selected_option, submitted_date) VALUES (?, ?, ?, ?)";
+    // Records an attempt in one round trip: the attempt number, the attempt limit and whether the quiz is
+    // still open are all checked inside the INSERT. The score comes from the quiz's compiled answer key.
+    // Returns null when the quiz is closed or no attempts are left; two attempts racing for the same number
+    // fail on the unique (quiz, student, attempt) index.
+    private QuizAttempt submitQuizAttempt(int quizId, int studentId, int[] answers, int score) throws SQLException {
+        String sql = "INSERT INTO quiz_submissions (quiz_id, student_id, answers, submitted_date, attempt_no, score) " +
+                "SELECT q.id, ?, ?, now(), prev.used + 1, ? " +
+                "FROM quizzes q CROSS JOIN LATERAL (SELECT COALESCE(MAX(attempt_no), 0) AS used FROM quiz_submissions " +
+                "WHERE quiz_id = q.id AND student_id = ?) prev " +
+                "WHERE q.id = ? AND q.closed_at IS NULL AND (q.max_attempts IS NULL OR prev.used < q.max_attempts) " +
+                "RETURNING attempt_no, score";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            stmt.setArray(2, connection.createArrayOf("integer", Arrays.stream(answers).boxed().toArray()));
+            stmt.setInt(3, score);
+            stmt.setInt(4, studentId);
+            stmt.setInt(5, quizId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? new QuizAttempt(rs.getInt("attempt_no"), rs.getInt("score")) : null;
+        }
+    }
+
+    // Stops further attempts; returns false when the quiz was already closed
+    private boolean closeQuiz(int quizId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE quizzes SET closed_at = now() WHERE id = ? AND closed_at IS NULL")) {
             stmt.setInt(1, quizId);
-            stmt.setInt(2, getUserIdByUsername(currentUser));
-            stmt.setInt(3, selectedOption);
-            stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
         }
     }
 
-    private void updateQuizGrade(int quizId, int studentId, int score) throws SQLException {
-        String sql = "UPDATE quiz_submissions SET score = ? WHERE quiz_id = ? AND student_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, score);
-            stmt.setInt(2, quizId);
-            stmt.setInt(3, studentId);
-            stmt.executeUpdate();
+    // Re-grades every submission of a quiz against a freshly compiled answer key. Answers are streamed in,
+    // scored in parallel, and written back by one UPDATE joined to the unnested (id, score) arrays; only
+    // scores that changed are written, and progress is recomputed for the students they belong to.
+    // Returns the number of scores that changed.
+    private int regradeQuiz(Connection conn, int quizId, int courseId) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            QuizAnswerKey key = compileAnswerKey(getQuizQuestions(conn, quizId));
+            int count = 0;
+            int[] ids = new int[256];
+            int[][] answers = new int[256][];
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id, answers FROM quiz_submissions WHERE quiz_id = ?")) {
+                stmt.setFetchSize(5000);
+                stmt.setInt(1, quizId);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        answers = Arrays.copyOf(answers, count * 2);
+                    }
+                    ids[count] = rs.getInt("id");
+                    answers[count] = toIntArray(rs.getArray("answers"));
+                    count++;
+                }
+            }
+
+            int[][] submitted = answers;
+            int[] scores = new int[count];
+            IntStream.range(0, count).parallel().forEach(i -> scores[i] = key.score(submitted[i]));
+
+            Integer[] boxedIds = new Integer[count];
+            Integer[] boxedScores = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                boxedIds[i] = ids[i];
+                boxedScores[i] = scores[i];
+            }
+            Set<Integer> studentIds = new HashSet<>();
+            int changed = 0;
+            String updateSql = "UPDATE quiz_submissions qs SET score = u.score FROM unnest(?::int[], ?::int[]) AS u(id, score) " +
+                    "WHERE qs.id = u.id AND qs.score IS DISTINCT FROM u.score RETURNING qs.student_id";
+            try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+                stmt.setArray(1, conn.createArrayOf("integer", boxedIds));
+                stmt.setArray(2, conn.createArrayOf("integer", boxedScores));
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    studentIds.add(rs.getInt(1));
+                    changed++;
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE quizzes SET total_points = ? WHERE id = ?")) {
+                stmt.setInt(1, key.totalPoints());
+                stmt.setInt(2, quizId);
+                stmt.executeUpdate();
+            }
+            if (!studentIds.isEmpty()) {
+                updateStudentProgress(conn, courseId, studentIds);
+            }
+            conn.commit();
+            return changed;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static int[] toIntArray(Array array) throws SQLException {
+        if (array == null) return new int[0];
+        Integer[] values = (Integer[]) array.getArray();
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] != null ? values[i] : 0;
         }
+        return result;
     }
 
     private void showCourses() {
+        showView("courses", this::createCoursesView);
+    }
+
+    private VBox createCoursesView() {
         VBox coursesPane = new VBox(10);
         coursesPane.setPadding(new Insets(20));
-        coursesPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        coursesPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Available Courses");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TableView<Course> courseTable = new TableView<>();
         TableColumn<Course, String> titleCol = new TableColumn<>("Title");
@@ -2757,11 +5908,15 @@ public class LearningManagementSystem extends Application {
         descCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().description));
         TableColumn<Course, String> instructorCol = new TableColumn<>("Instructor");
         instructorCol.setCellValueFactory(cellData -> new SimpleStringProperty(getUsernameById(cellData.getValue().instructorId)));
-        courseTable.getColumns().addAll(titleCol, descCol, instructorCol);
+        TableColumn<Course, String> seatsCol = new TableColumn<>("Seats");
+        seatsCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().seats()));
+        courseTable.getColumns().addAll(titleCol, descCol, instructorCol, seatsCol);
         courseTable.setItems(FXCollections.observableArrayList(getAllCourses()));
 
         Button enrollButton = new Button("Enroll");
-        enrollButton.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #4CAF50; -fx-text-fill: white;" : "-fx-background-color: #66BB6A; -fx-text-fill: white;");
+        enrollButton.getStyleClass().add("btn-success");
+        Button dropButton = new Button("Drop");
+        dropButton.getStyleClass().add("btn-danger");
 
         Label statusLabel = new Label();
         statusLabel.setTextFill(Color.GREEN);
@@ -2770,10 +5925,43 @@ public class LearningManagementSystem extends Application {
             Course selected = courseTable.getSelectionModel().getSelectedItem();
             if (selected != null && "Student".equals(currentRole)) {
                 try {
-                    enrollStudent(selected.id, getUserIdByUsername(currentUser));
-                    statusLabel.setText("Enrolled successfully!");
-                    logActivity("Enrolled in course: " + selected.title);
-                    addNotification(getUserIdByUsername(currentUser), "Enrolled in course: " + selected.title, "Enrollment");
+                    int studentId = getUserIdByUsername(currentUser);
+                    EnrollmentOutcome outcome = enrollStudent(selected.id, studentId);
+                    statusLabel.setTextFill(Color.GREEN);
+                    switch (outcome) {
+                        case ENROLLED:
+                            statusLabel.setText("Enrolled successfully!");
+                            logActivity("Enrolled in course: " + selected.title);
+                            addNotification(studentId, selected.id, "Enrolled in course: " + selected.title, "Enrollment");
+                            break;
+                        case WAITLISTED:
+                            statusLabel.setText("The course is full. You are number " + getWaitlistPosition(selected.id, studentId)
+                                    + " on the waitlist and will be enrolled when a seat opens up.");
+                            logActivity("Joined waitlist for course: " + selected.title);
+                            break;
+                        default:
+                            statusLabel.setText("You are already enrolled or on the waitlist for this course.");
+                    }
+                    courseTable.setItems(FXCollections.observableArrayList(getAllCourses()));
+                } catch (SQLException ex) {
+                    statusLabel.setText("Error: " + ex.getMessage());
+                    statusLabel.setTextFill(Color.RED);
+                }
+            }
+        });
+
+        dropButton.setOnAction(e -> {
+            Course selected = courseTable.getSelectionModel().getSelectedItem();
+            if (selected != null && "Student".equals(currentRole)) {
+                try {
+                    List<Integer> promoted = dropEnrollment(selected.id, getUserIdByUsername(currentUser));
+                    for (int studentId : promoted) {
+                        addNotification(studentId, selected.id, "A seat opened up and you were enrolled in course: " + selected.title, "Enrollment");
+                    }
+                    statusLabel.setText("You have left " + selected.title + ".");
+                    statusLabel.setTextFill(Color.GREEN);
+                    logActivity("Dropped course: " + selected.title);
+                    courseTable.setItems(FXCollections.observableArrayList(getAllCourses()));
                 } catch (SQLException ex) {
                     statusLabel.setText("Error: " + ex.getMessage());
                     statusLabel.setTextFill(Color.RED);
@@ -2781,28 +5969,166 @@ public class LearningManagementSystem extends Application {
             }
         });
 
-        coursesPane.getChildren().addAll(titleLabel, courseTable, enrollButton, statusLabel);
-        rootLayout.setCenter(coursesPane);
+        coursesPane.getChildren().addAll(titleLabel, courseTable, new HBox(10, enrollButton, dropButton), statusLabel);
+        return coursesPane;
+    }
+
+    // Takes a seat with a conditional increment on the course row, so concurrent students only contend on that
+    // one row for the length of a single statement, and the enrollment is inserted in the same statement. When
+    // no seat is left the student is waitlisted instead; a waitlisted student who gets a seat this way leaves
+    // the waitlist in the same statement. A seat taken by a duplicate request is rolled back.
+    // Serialization failures and deadlocks are retried a few times with a short backoff.
+    private EnrollmentOutcome enrollStudent(int courseId, int studentId) throws SQLException {
+        String sql = "WITH seat AS (UPDATE courses SET seats_taken = seats_taken + 1 " +
+                "WHERE id = ? AND (capacity IS NULL OR seats_taken < capacity) " +
+                "AND NOT EXISTS (SELECT 1 FROM enrollments WHERE course_id = ? AND student_id = ?) RETURNING id), " +
+                "enrolled AS (INSERT INTO enrollments (student_id, course_id, enrolled_date) " +
+                "SELECT ?, id, ? FROM seat ON CONFLICT (student_id, course_id) DO NOTHING RETURNING id), " +
+                "unlisted AS (DELETE FROM course_waitlist WHERE course_id = ? AND student_id = ? AND EXISTS (SELECT 1 FROM enrolled)), " +
+                "waitlisted AS (INSERT INTO course_waitlist (course_id, student_id, joined_at) SELECT ?, ?, now() " +
+                "WHERE NOT EXISTS (SELECT 1 FROM seat) AND NOT EXISTS (SELECT 1 FROM enrollments WHERE course_id = ? AND student_id = ?) " +
+                "ON CONFLICT (course_id, student_id) DO NOTHING RETURNING id) " +
+                "SELECT (SELECT COUNT(*) FROM seat) AS seated, (SELECT COUNT(*) FROM enrolled) AS enrolled, " +
+                "(SELECT COUNT(*) FROM waitlisted) AS waitlisted";
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setInt(1, courseId);
+                stmt.setInt(2, courseId);
+                stmt.setInt(3, studentId);
+                stmt.setInt(4, studentId);
+                stmt.setDate(5, Date.valueOf(LocalDate.now()));
+                stmt.setInt(6, courseId);
+                stmt.setInt(7, studentId);
+                stmt.setInt(8, courseId);
+                stmt.setInt(9, studentId);
+                stmt.setInt(10, courseId);
+                stmt.setInt(11, studentId);
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                EnrollmentOutcome outcome;
+                if (rs.getInt("enrolled") == 1) {
+                    outcome = EnrollmentOutcome.ENROLLED;
+                    connection.commit();
+                } else if (rs.getInt("waitlisted") == 1) {
+                    outcome = EnrollmentOutcome.WAITLISTED;
+                    connection.commit();
+                } else {
+                    outcome = EnrollmentOutcome.ALREADY_ENROLLED;
+                    connection.rollback();
+                }
+                enrollmentMetrics.record(outcome, System.nanoTime() - start);
+                return outcome;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (!isTransientFailure(e) || attempt > ENROLL_MAX_RETRIES) {
+                    enrollmentMetrics.failures.incrementAndGet();
+                    throw e;
+                }
+                enrollmentMetrics.retries.incrementAndGet();
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(5, 20) * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static boolean isTransientFailure(SQLException e) {
+        return "40001".equals(e.getSQLState()) || "40P01".equals(e.getSQLState());
     }
 
-    private void enrollStudent(int courseId, int studentId) throws SQLException {
-        String sql = "INSERT INTO enrollments (student_id, course_id, enrolled_date) VALUES (?, ?, ?)";
+    // Removes the enrollment (or waitlist entry), frees the seat and hands it to the head of the waitlist,
+    // all in one transaction. Returns the promoted students.
+    private List<Integer> dropEnrollment(int courseId, int studentId) throws SQLException {
+        String sql = "WITH dropped AS (DELETE FROM enrollments WHERE course_id = ? AND student_id = ? RETURNING id), " +
+                "unlisted AS (DELETE FROM course_waitlist WHERE course_id = ? AND student_id = ?) " +
+                "UPDATE courses SET seats_taken = GREATEST(0, seats_taken - (SELECT COUNT(*) FROM dropped)) " +
+                "WHERE id = ? AND EXISTS (SELECT 1 FROM dropped)";
+        connection.setAutoCommit(false);
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, studentId);
-            stmt.setInt(2, courseId);
-            stmt.setDate(3, Date.valueOf(LocalDate.now()));
+            stmt.setInt(1, courseId);
+            stmt.setInt(2, studentId);
+            stmt.setInt(3, courseId);
+            stmt.setInt(4, studentId);
+            stmt.setInt(5, courseId);
+            stmt.executeUpdate();
+            List<Integer> promoted = promoteWaitlisted(courseId);
+            connection.commit();
+            return promoted;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Moves waitlisted students into free seats, oldest first, within the caller's transaction. Each round takes
+    // a seat and the head of the waitlist in one statement; SKIP LOCKED lets concurrent promotions take
+    // different students. Waitlist rows of students who are already enrolled are dropped first and never picked
+    // as the head, since their INSERT would do nothing and waste the seat. Stops when the course is full or the
+    // waitlist is empty.
+    private List<Integer> promoteWaitlisted(int courseId) throws SQLException {
+        String cleanup = "DELETE FROM course_waitlist w USING enrollments e " +
+                "WHERE w.course_id = ? AND e.course_id = w.course_id AND e.student_id = w.student_id";
+        String sql = "WITH head AS (SELECT w.id, w.student_id FROM course_waitlist w WHERE w.course_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM enrollments e WHERE e.course_id = w.course_id AND e.student_id = w.student_id) " +
+                "ORDER BY w.id LIMIT 1 FOR UPDATE SKIP LOCKED), " +
+                "seat AS (UPDATE courses SET seats_taken = seats_taken + 1 " +
+                "WHERE id = ? AND (capacity IS NULL OR seats_taken < capacity) AND EXISTS (SELECT 1 FROM head) RETURNING id), " +
+                "moved AS (DELETE FROM course_waitlist w USING head, seat WHERE w.id = head.id RETURNING w.student_id) " +
+                "INSERT INTO enrollments (student_id, course_id, enrolled_date) SELECT student_id, ?, ? FROM moved " +
+                "ON CONFLICT (student_id, course_id) DO NOTHING RETURNING student_id";
+        try (PreparedStatement stmt = connection.prepareStatement(cleanup)) {
+            stmt.setInt(1, courseId);
             stmt.executeUpdate();
         }
+        List<Integer> promoted = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            while (true) {
+                stmt.setInt(1, courseId);
+                stmt.setInt(2, courseId);
+                stmt.setInt(3, courseId);
+                stmt.setDate(4, Date.valueOf(LocalDate.now()));
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next()) break;
+                promoted.add(rs.getInt("student_id"));
+            }
+        }
+        enrollmentMetrics.promoted.addAndGet(promoted.size());
+        return promoted;
+    }
+
+    private int getWaitlistPosition(int courseId, int studentId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM course_waitlist WHERE course_id = ? " +
+                "AND id <= (SELECT id FROM course_waitlist WHERE course_id = ? AND student_id = ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, courseId);
+            stmt.setInt(2, courseId);
+            stmt.setInt(3, studentId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
     }
 
     private void showStudents() {
+        showView("students", this::createStudentsView);
+    }
+
+    private VBox createStudentsView() {
         VBox studentsPane = new VBox(10);
         studentsPane.setPadding(new Insets(20));
-        studentsPane.setStyle(currentTheme.equals("Light") ? "-fx-background-color: #f4f4f4;" : "-fx-background-color: #2c3e50;");
+        studentsPane.getStyleClass().add("content-pane");
 
         Label titleLabel = new Label("Students");
         titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-        titleLabel.setTextFill(currentTheme.equals("Light") ? Color.DARKSLATEBLUE : Color.LIGHTBLUE);
+        titleLabel.getStyleClass().add("title-label");
 
         TableView<User> studentTable = new TableView<>();
         TableColumn<User, String> usernameCol = new TableColumn<>("Username");
@@ -2815,7 +6141,7 @@ public class LearningManagementSystem extends Application {
                 .collect(Collectors.toList())));
 
         studentsPane.getChildren().addAll(titleLabel, studentTable);
-        rootLayout.setCenter(studentsPane);
+        return studentsPane;
     }
 
     private void showAboutDialog() {
@@ -2855,13 +6181,61 @@ public class LearningManagementSystem extends Application {
         String description;
         int instructorId;
         boolean approved;
+        Integer capacity;
+        int seatsTaken;
+        int waitlisted;
 
-        Course(int id, String title, String description, int instructorId, boolean approved) {
+        Course(int id, String title, String description, int instructorId, boolean approved, Integer capacity, int seatsTaken) {
             this.id = id;
             this.title = title;
             this.description = description;
             this.instructorId = instructorId;
             this.approved = approved;
+            this.capacity = capacity;
+            this.seatsTaken = seatsTaken;
+        }
+
+        String seats() {
+            return capacity != null ? seatsTaken + " / " + capacity : String.valueOf(seatsTaken);
+        }
+    }
+
+    private enum EnrollmentOutcome { ENROLLED, WAITLISTED, ALREADY_ENROLLED }
+
+    // Counters are atomic so enrollments from background work can record into them too
+    private static class EnrollmentMetrics {
+        final AtomicLong enrolled = new AtomicLong();
+        final AtomicLong waitlisted = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        final AtomicLong promoted = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final long startedAt = System.nanoTime();
+
+        void record(EnrollmentOutcome outcome, long nanos) {
+            switch (outcome) {
+                case ENROLLED:
+                    enrolled.incrementAndGet();
+                    break;
+                case WAITLISTED:
+                    waitlisted.incrementAndGet();
+                    break;
+                default:
+                    duplicates.incrementAndGet();
+            }
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        String summary() {
+            long requests = enrolled.get() + waitlisted.get() + duplicates.get();
+            double minutes = Math.max(1e-9, (System.nanoTime() - startedAt) / 60e9);
+            return String.format("Requests: %d (%.1f/min)   Enrolled: %d   Waitlisted: %d   Promoted: %d   Duplicates: %d%n" +
+                            "Average latency: %.1f ms   Slowest: %.1f ms   Retries after conflicts: %d   Failed: %d",
+                    requests, requests / minutes, enrolled.get(), waitlisted.get(), promoted.get(), duplicates.get(),
+                    requests > 0 ? totalNanos.get() / 1e6 / requests : 0.0, maxNanos.get() / 1e6, retries.get(), failures.get());
         }
     }
 
@@ -2872,12 +6246,15 @@ public class LearningManagementSystem extends Application {
         LocalDateTime createdAt;
         boolean isRead;
 
-        Notification(int id, String content, String type, LocalDateTime createdAt, boolean isRead) {
+        int digestCount;
+
+        Notification(int id, String content, String type, LocalDateTime createdAt, boolean isRead, int digestCount) {
             this.id = id;
             this.content = content;
             this.type = type;
             this.createdAt = createdAt;
             this.isRead = isRead;
+            this.digestCount = digestCount;
         }
     }
 
@@ -2885,23 +6262,58 @@ public class LearningManagementSystem extends Application {
         int id;
         int courseId;
         String title;
-        String question;
-        String[] options;
-        int correctOption;
         int totalPoints;
-
-        Quiz(int id, int courseId, String title, String question, String[] options, int correctOption) {
-            this(id, courseId, title, question, options, correctOption, 100);
-        }
-
-        Quiz(int id, int courseId, String title, String question, String[] options, int correctOption, int totalPoints) {
+        Integer maxAttempts;
+        String scoringPolicy = "Best";
+        boolean shuffleOptions;
+        boolean closed;
+        int questionCount;
+        int attemptsUsed;
+        // Loaded when the quiz is opened
+        List<QuizQuestion> questions;
+        QuizAnswerKey answerKey;
+
+        Quiz(int id, int courseId, String title, int totalPoints) {
             this.id = id;
             this.courseId = courseId;
             this.title = title;
+            this.totalPoints = totalPoints;
+        }
+
+        boolean canAttempt() {
+            return !closed && (maxAttempts == null || attemptsUsed < maxAttempts);
+        }
+
+        String attemptsText() {
+            String used = maxAttempts != null ? attemptsUsed + " of " + maxAttempts : String.valueOf(attemptsUsed);
+            return (closed ? "This quiz is closed. " : "") + "Attempts used: " + used
+                    + " (" + ("Latest".equals(scoringPolicy) ? "latest" : "best") + " attempt counts)";
+        }
+    }
+
+    private static class QuizQuestion {
+        int position;
+        String question;
+        String[] options;
+        int correctOption;
+        int points;
+
+        QuizQuestion(int position, String question, String[] options, int correctOption, int points) {
+            this.position = position;
             this.question = question;
             this.options = options;
             this.correctOption = correctOption;
-            this.totalPoints = totalPoints;
+            this.points = points;
+        }
+    }
+
+    private static class QuizAttempt {
+        int attemptNo;
+        int score;
+
+        QuizAttempt(int attemptNo, int score) {
+            this.attemptNo = attemptNo;
+            this.score = score;
         }
     }
 
@@ -2926,33 +6338,39 @@ public class LearningManagementSystem extends Application {
     private static class Material {
         int id;
         String title;
-        String content;
+        long contentSize;
         LocalDate uploadDate;
         String filePath;
+        String fileName;
+        long fileSize;
 
-        Material(int id, String title, String content, LocalDate uploadDate) {
-            this(id, title, content, uploadDate, null);
+        Material(int id, String title, long contentSize, LocalDate uploadDate) {
+            this(id, title, contentSize, uploadDate, null, null, 0);
         }
 
-        Material(int id, String title, String content, LocalDate uploadDate, String filePath) {
+        Material(int id, String title, long contentSize, LocalDate uploadDate, String filePath, String fileName, long fileSize) {
             this.id = id;
             this.title = title;
-            this.content = content;
+            this.contentSize = contentSize;
             this.uploadDate = uploadDate;
             this.filePath = filePath;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
         }
     }
 
     private static class Assignment {
         int id;
+        Integer submissionId;
         String title;
         String submission;
         Integer grade;
         String feedback;
         LocalDate deadline;
 
-        Assignment(int id, String title, String submission, Integer grade, String feedback, LocalDate deadline) {
+        Assignment(int id, Integer submissionId, String title, String submission, Integer grade, String feedback, LocalDate deadline) {
             this.id = id;
+            this.submissionId = submissionId;
             this.title = title;
             this.submission = submission;
             this.grade = grade;
@@ -2974,16 +6392,222 @@ public class LearningManagementSystem extends Application {
     private static class HelpMessage {
         int id;
         int userId;
+        String username;
         String message;
         LocalDateTime createdAt;
         String status;
+        String handledBy;
 
-        HelpMessage(int id, int userId, String message, LocalDateTime createdAt, String status) {
+        HelpMessage(int id, int userId, String username, String message, LocalDateTime createdAt, String status, String handledBy) {
             this.id = id;
             this.userId = userId;
+            this.username = username;
             this.message = message;
             this.createdAt = createdAt;
             this.status = status;
+            this.handledBy = handledBy;
+        }
+    }
+
+    private static class HelpDeskStat {
+        String admin;
+        int resolvedLastDay;
+        int resolvedLastMonth;
+        double averageMinutes;
+
+        HelpDeskStat(String admin, int resolvedLastDay, int resolvedLastMonth, double averageMinutes) {
+            this.admin = admin;
+            this.resolvedLastDay = resolvedLastDay;
+            this.resolvedLastMonth = resolvedLastMonth;
+            this.averageMinutes = averageMinutes;
+        }
+    }
+
+    private static class SearchResult {
+        int materialId;
+        String courseTitle;
+        String title;
+        String snippet;
+        LocalDate uploadDate;
+
+        SearchResult(int materialId, String courseTitle, String title, String snippet, LocalDate uploadDate) {
+            this.materialId = materialId;
+            this.courseTitle = courseTitle;
+            this.title = title;
+            this.snippet = snippet;
+            this.uploadDate = uploadDate;
+        }
+    }
+
+    private static class AssessmentSketch {
+        char kind;
+        int id;
+        String title;
+        GradeSketch sketch;
+
+        AssessmentSketch(char kind, int id, String title, GradeSketch sketch) {
+            this.kind = kind;
+            this.id = id;
+            this.title = title;
+            this.sketch = sketch;
+        }
+    }
+
+    private static class Conversation {
+        int id;
+        int courseId;
+        String courseTitle;
+        int otherUserId;
+        String otherUser;
+        String preview;
+        int unread;
+        LocalDateTime lastMessageAt;
+
+        Conversation(int id, int courseId, String courseTitle, int otherUserId, String otherUser, String preview, int unread, LocalDateTime lastMessageAt) {
+            this.id = id;
+            this.courseId = courseId;
+            this.courseTitle = courseTitle;
+            this.otherUserId = otherUserId;
+            this.otherUser = otherUser;
+            this.preview = preview;
+            this.unread = unread;
+            this.lastMessageAt = lastMessageAt;
+        }
+    }
+
+    private static class ChatMessage {
+        int id;
+        String sender;
+        String content;
+        LocalDateTime sentTime;
+
+        ChatMessage(int id, String sender, String content, LocalDateTime sentTime) {
+            this.id = id;
+            this.sender = sender;
+            this.content = content;
+            this.sentTime = sentTime;
+        }
+    }
+
+    private static class OutboxEmail {
+        long id;
+        String recipient;
+        String subject;
+        String body;
+        String dedupKey;
+        int attempts;
+        boolean done;
+
+        OutboxEmail(long id, String recipient, String subject, String body, String dedupKey, int attempts) {
+            this.id = id;
+            this.recipient = recipient;
+            this.subject = subject;
+            this.body = body;
+            this.dedupKey = dedupKey;
+            this.attempts = attempts;
+        }
+    }
+
+    private interface MaintenanceJob {
+        int run(Connection conn) throws SQLException;
+    }
+
+    private interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static class AtRiskEnrollment {
+        String courseTitle;
+        String student;
+        int progress;
+        LocalDateTime flaggedAt;
+
+        AtRiskEnrollment(String courseTitle, String student, int progress, LocalDateTime flaggedAt) {
+            this.courseTitle = courseTitle;
+            this.student = student;
+            this.progress = progress;
+            this.flaggedAt = flaggedAt;
+        }
+    }
+
+    private static class CourseGradeStats {
+        Timestamp computedAt;
+        GradeSketch overall = new GradeSketch();
+        List<AssessmentSketch> assessments = new ArrayList<>();
+    }
+
+    private static class UploadSession {
+        int id;
+        int chunkSize;
+        long[] chunkChecksums;
+
+        UploadSession(int id, int chunkSize, long[] chunkChecksums) {
+            this.id = id;
+            this.chunkSize = chunkSize;
+            this.chunkChecksums = chunkChecksums;
+        }
+    }
+
+    // Access-ordered cache bounded by the total weight of its values; the least recently used entries are
+    // dropped until the total fits again, and a value heavier than the whole budget is not cached at all
+    private static class LruCache<K, V> {
+        private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxWeight;
+        private final ToLongFunction<V> weigher;
+        private long weight;
+
+        LruCache(long maxWeight, ToLongFunction<V> weigher) {
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+        }
+
+        synchronized V get(K key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(K key, V value) {
+            remove(key);
+            long valueWeight = weigher.applyAsLong(value);
+            if (valueWeight > maxWeight) return;
+            entries.put(key, value);
+            weight += valueWeight;
+            Iterator<V> eldest = entries.values().iterator();
+            while (weight > maxWeight) {
+                weight -= weigher.applyAsLong(eldest.next());
+                eldest.remove();
+            }
+        }
+
+        synchronized void remove(K key) {
+            V removed = entries.remove(key);
+            if (removed != null) {
+                weight -= weigher.applyAsLong(removed);
+            }
+        }
+    }
+
+    // Collects the duration of each startup phase, possibly recorded from different threads
+    private static class StartupTimer {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+        void record(String phase, long phaseStartNanos) {
+            phases.put(phase, (System.nanoTime() - phaseStartNanos) / 1_000_000);
+        }
+
+        void measure(String phase, Runnable work) {
+            long start = System.nanoTime();
+            work.run();
+            record(phase, start);
+        }
+
+        String summary() {
+            StringBuilder summary = new StringBuilder("Startup timings:");
+            synchronized (phases) {
+                phases.forEach((phase, millis) -> summary.append(' ').append(phase).append('=').append(millis).append("ms,"));
+            }
+            summary.append(" total=").append((System.nanoTime() - startNanos) / 1_000_000).append("ms");
+            return summary.toString();
         }
     }
 
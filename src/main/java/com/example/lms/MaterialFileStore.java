@@ -0,0 +1,154 @@
+package com.example.lms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content-addressed storage for course material files.
+ *
+ * Every file is stored once under root/ab/cd/abcd... where the name is the SHA-256 of its bytes,
+ * so uploading the same lecture twice costs no extra disk space. Files are hashed while they are
+ * copied into the store and are served with FileChannel.transferTo, which lets the OS move the bytes
+ * without copying them through the Java heap.
+ *
+ * The root must be storage every client can reach (lms.files.root), since the material rows that point
+ * into the store are shared by all clients.
+ */
+final class MaterialFileStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+
+    MaterialFileStore(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * A file that has been committed to the store.
+     */
+    static final class StoredFile {
+        final String sha256;
+        final long size;
+        final String relativePath;
+
+        StoredFile(String sha256, long size, String relativePath) {
+            this.sha256 = sha256;
+            this.size = size;
+            this.relativePath = relativePath;
+        }
+    }
+
+    /**
+     * Copies a local file into the store, hashing it in the same pass.
+     */
+    StoredFile store(Path source) throws IOException {
+        Path temp = createTempFile();
+        try {
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long size = 0;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        size += out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            }
+            return commit(temp, toHex(digest.digest()), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Moves a fully written and hashed temporary file to its content address. If the content is
+     * already stored the temporary file is simply discarded.
+     */
+    StoredFile commit(Path temp, String sha256, long size) throws IOException {
+        String relativePath = relativePath(sha256);
+        Path target = root.resolve(relativePath);
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another upload of the same content
+            }
+        }
+        return new StoredFile(sha256, size, relativePath);
+    }
+
+    /**
+     * Copies a stored file to the target path using zero-copy channel transfer.
+     */
+    long copyTo(String relativePath, Path target) throws IOException {
+        Path source = resolve(relativePath);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            return size;
+        }
+    }
+
+    Path resolve(String relativePath) throws IOException {
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root.normalize()) || !Files.isRegularFile(path)) {
+            throw new IOException("Stored file not found: " + relativePath);
+        }
+        return path;
+    }
+
+    /**
+     * Location of the staging file for a resumable upload; it survives restarts until the upload is committed.
+     */
+    Path stagingFile(String name) throws IOException {
+        Path uploadDir = root.resolve("uploads");
+        Files.createDirectories(uploadDir);
+        return uploadDir.resolve(name);
+    }
+
+    Path createTempFile() throws IOException {
+        Path tempDir = root.resolve("tmp");
+        Files.createDirectories(tempDir);
+        return Files.createTempFile(tempDir, "store", ".tmp");
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String relativePath(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.lms;
+
+import java.util.SplittableRandom;
+
+/**
+ * Answer key of one quiz compiled into primitive arrays.
+ *
+ * A key is built once when a quiz is loaded and never changes, so grading a submission is a single pass
+ * over two int arrays with no allocation, and one key can be shared by every thread of a bulk re-grade.
+ * Answers are the 1-based option numbers in the order the instructor wrote them, with 0 for a question
+ * left unanswered; shuffling only changes the order a student sees, never what is stored or graded.
+ */
+final class QuizAnswerKey {
+
+    private final int[] correctOptions;
+    private final int[] points;
+    private final int totalPoints;
+
+    QuizAnswerKey(int[] correctOptions, int[] points) {
+        if (correctOptions.length != points.length) {
+            throw new IllegalArgumentException("Every question needs both a correct option and points");
+        }
+        this.correctOptions = correctOptions.clone();
+        this.points = points.clone();
+        int total = 0;
+        for (int p : points) {
+            total += p;
+        }
+        this.totalPoints = total;
+    }
+
+    int questions() {
+        return correctOptions.length;
+    }
+
+    int totalPoints() {
+        return totalPoints;
+    }
+
+    /**
+     * Scores one submission; answers beyond the last question are ignored and missing ones count as wrong.
+     */
+    int score(int[] answers) {
+        if (answers == null) return 0;
+        int score = 0;
+        int n = Math.min(answers.length, correctOptions.length);
+        for (int i = 0; i < n; i++) {
+            if (answers[i] == correctOptions[i]) {
+                score += points[i];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Order in which a student is shown the options of one question; entry i is the original number of
+     * the option displayed at position i. The shuffle is seeded from the quiz, question and student, so it
+     * stays the same across reloads and attempts while neighbouring students see different orders.
+     */
+    static int[] optionOrder(int optionCount, int quizId, int position, int studentId) {
+        int[] order = new int[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            order[i] = i + 1;
+        }
+        SplittableRandom random = new SplittableRandom(
+                quizId * 0x9E3779B97F4A7C15L ^ position * 0xC2B2AE3D27D4EB4FL ^ studentId);
+        for (int i = optionCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+}
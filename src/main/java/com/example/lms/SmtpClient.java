@@ -0,0 +1,250 @@
+package com.example.lms;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Minimal SMTP client for handing notification mail to a local relay.
+ *
+ * One connection is kept open for a whole batch. When the server advertises PIPELINING (RFC 2920) the
+ * MAIL, RCPT and DATA commands of a message are written in one flush and their replies read afterwards,
+ * so a message costs two round trips instead of four. TLS and authentication are left to the relay.
+ *
+ * Configured with the system properties lms.smtp.host, lms.smtp.port and lms.smtp.from.
+ */
+final class SmtpClient implements Closeable {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 30000;
+
+    /**
+     * Outcome of one message; transient failures (4xx replies) are worth retrying, permanent ones are not.
+     */
+    static final class Result {
+        final boolean sent;
+        final boolean permanent;
+        final String reply;
+
+        Result(boolean sent, boolean permanent, String reply) {
+            this.sent = sent;
+            this.permanent = permanent;
+            this.reply = reply;
+        }
+    }
+
+    private final String from;
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private boolean pipelining;
+
+    private SmtpClient(String host, int port, String from) throws IOException {
+        this.from = from;
+        this.socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        socket.setSoTimeout(READ_TIMEOUT_MS);
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    static SmtpClient connect() throws IOException {
+        return connect(System.getProperty("lms.smtp.host", "localhost"),
+                Integer.getInteger("lms.smtp.port", 25),
+                System.getProperty("lms.smtp.from", "no-reply@lms.local"));
+    }
+
+    static SmtpClient connect(String host, int port, String from) throws IOException {
+        if (!isSafeAddress(from)) {
+            throw new IllegalArgumentException("Invalid sender address: " + from);
+        }
+        SmtpClient client = new SmtpClient(host, port, from);
+        try {
+            client.expect(client.readReply(), 2, "greeting");
+            client.write("EHLO " + localName() + "\r\n");
+            client.flush();
+            String ehlo = client.readReply();
+            client.expect(ehlo, 2, "EHLO");
+            client.pipelining = ehlo.toUpperCase().contains("PIPELINING");
+            return client;
+        } catch (IOException e) {
+            client.socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends one plain-text message. A failed message leaves the connection usable for the next one.
+     * An address that could smuggle extra commands or headers is failed permanently without being sent.
+     *
+     * @throws IOException if the connection itself fails, after which the client must be discarded
+     */
+    Result send(String to, String subject, String body, String messageId) throws IOException {
+        if (!isSafeAddress(to)) {
+            return new Result(false, true, "Invalid recipient address");
+        }
+        List<String> replies = new ArrayList<>(3);
+        if (pipelining) {
+            write("MAIL FROM:<" + from + ">\r\nRCPT TO:<" + to + ">\r\nDATA\r\n");
+            flush();
+            for (int i = 0; i < 3; i++) {
+                replies.add(readReply());
+            }
+        } else {
+            for (String command : new String[]{"MAIL FROM:<" + from + ">", "RCPT TO:<" + to + ">", "DATA"}) {
+                write(command + "\r\n");
+                flush();
+                String reply = readReply();
+                replies.add(reply);
+                if (code(reply) >= 400) break;
+            }
+        }
+
+        String rejected = null;
+        for (int i = 0; i < replies.size() && rejected == null; i++) {
+            if (code(replies.get(i)) / 100 != (i < 2 ? 2 : 3)) rejected = replies.get(i);
+        }
+        if (rejected != null || replies.size() < 3) {
+            if (replies.size() == 3 && code(replies.get(2)) / 100 == 3) {
+                // DATA was accepted although an earlier command failed; end it without content
+                write(".\r\n");
+                flush();
+                readReply();
+            }
+            reset();
+            return failure(rejected != null ? rejected : replies.get(replies.size() - 1));
+        }
+
+        write(message(to, subject, body, messageId));
+        flush();
+        String reply = readReply();
+        return code(reply) / 100 == 2 ? new Result(true, false, reply) : failure(reply);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            write("QUIT\r\n");
+            flush();
+            readReply();
+        } catch (IOException e) {
+            // The server may already have dropped the connection
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * The address is written verbatim into RCPT TO and the To header, so line breaks, other control
+     * characters and angle brackets are rejected.
+     */
+    static boolean isSafeAddress(String address) {
+        if (address == null || address.isEmpty() || address.length() > 254) return false;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c < 32 || c == 127 || c == '<' || c == '>') return false;
+        }
+        return address.indexOf('@') > 0;
+    }
+
+    private void reset() throws IOException {
+        write("RSET\r\n");
+        flush();
+        readReply();
+    }
+
+    private String message(String to, String subject, String body, String messageId) {
+        StringBuilder message = new StringBuilder(body.length() + 512);
+        message.append("From: <").append(from).append(">\r\n");
+        message.append("To: <").append(to).append(">\r\n");
+        message.append("Subject: ").append(encodeHeader(subject)).append("\r\n");
+        message.append("Date: ").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now())).append("\r\n");
+        message.append("Message-ID: <").append(messageId).append(">\r\n");
+        message.append("MIME-Version: 1.0\r\n");
+        message.append("Content-Type: text/plain; charset=UTF-8\r\n");
+        message.append("Content-Transfer-Encoding: 8bit\r\n\r\n");
+        for (String line : body.split("\r\n|\r|\n", -1)) {
+            // Dot-stuffing so a line starting with '.' cannot end the message early
+            if (line.startsWith(".")) message.append('.');
+            message.append(line).append("\r\n");
+        }
+        message.append(".\r\n");
+        return message.toString();
+    }
+
+    private static String encodeHeader(String value) {
+        boolean ascii = value.chars().allMatch(c -> c >= 32 && c < 127);
+        return ascii ? value : "=?UTF-8?B?" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "?=";
+    }
+
+    private static Result failure(String reply) {
+        return new Result(false, code(reply) >= 500, reply);
+    }
+
+    private void expect(String reply, int expectedClass, String step) throws IOException {
+        if (code(reply) / 100 != expectedClass) {
+            throw new IOException("SMTP " + step + " rejected: " + reply);
+        }
+    }
+
+    private static int code(String reply) {
+        try {
+            return Integer.parseInt(reply.substring(0, 3));
+        } catch (RuntimeException e) {
+            return 500;
+        }
+    }
+
+    private void write(String data) throws IOException {
+        out.write(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void flush() throws IOException {
+        out.flush();
+    }
+
+    // Reads a possibly multi-line reply ("250-..." lines followed by "250 ...") and returns it joined
+    private String readReply() throws IOException {
+        StringBuilder reply = new StringBuilder();
+        while (true) {
+            String line = readLine();
+            reply.append(line).append('\n');
+            if (line.length() < 4 || line.charAt(3) != '-') {
+                return reply.toString().trim();
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') break;
+            if (c != '\r') line.append((char) c);
+        }
+        if (c == -1 && line.length() == 0) {
+            throw new IOException("SMTP connection closed by server");
+        }
+        return line.toString();
+    }
+
+    private static String localName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.lms;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs SmtpClient against an in-process SMTP stand-in on a loopback socket.
+ */
+@Timeout(10)
+class SmtpClientTest {
+
+    private static final String FROM = "no-reply@lms.local";
+
+    private FakeSmtpServer server;
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (server != null) server.close();
+    }
+
+    @Test
+    void pipelinesEnvelopeCommandsWhenAdvertised() throws Exception {
+        server = new FakeSmtpServer(true);
+        try (SmtpClient client = SmtpClient.connect("127.0.0.1", server.port(), FROM)) {
+            SmtpClient.Result result = client.send("student@example.com", "Reminder", "Due tomorrow", "1@lms");
+            assertTrue(result.sent, result.reply);
+        }
+        // The stand-in holds back its MAIL and RCPT replies until DATA arrives, so a client that waited for
+        // each reply would have timed out instead of getting here
+        assertEquals(List.of("MAIL FROM:<" + FROM + ">", "RCPT TO:<student@example.com>", "DATA"), server.envelope(0));
+        assertTrue(server.message(0).contains("Subject: Reminder"));
+        assertTrue(server.message(0).endsWith("Due tomorrow"));
+    }
+
+    @Test
+    void sendsOneCommandAtATimeWithoutPipelining() throws Exception {
+        server = new FakeSmtpServer(false);
+        try (SmtpClient client = SmtpClient.connect("127.0.0.1", server.port(), FROM)) {
+            assertTrue(client.send("a@example.com", "First", "one", "1@lms").sent);
+            assertTrue(client.send("b@example.com", "Second", "two", "2@lms").sent);
+        }
+        assertEquals(2, server.messageCount());
+        assertEquals("RCPT TO:<b@example.com>", server.envelope(1).get(1));
+    }
+
+    @Test
+    void dotStuffsBodyLinesStartingWithDot() throws Exception {
+        server = new FakeSmtpServer(true);
+        try (SmtpClient client = SmtpClient.connect("127.0.0.1", server.port(), FROM)) {
+            assertTrue(client.send("student@example.com", "Dots", ".\n..two\nend.", "1@lms").sent);
+        }
+        List<String> lines = server.rawDataLines(0);
+        assertEquals(List.of("..", "...two", "end."), lines.subList(lines.size() - 3, lines.size()));
+    }
+
+    @Test
+    void permanentRejectionLeavesConnectionUsable() throws Exception {
+        server = new FakeSmtpServer(true);
+        try (SmtpClient client = SmtpClient.connect("127.0.0.1", server.port(), FROM)) {
+            SmtpClient.Result rejected = client.send("unknown@example.com", "Hi", "body", "1@lms");
+            assertFalse(rejected.sent);
+            assertTrue(rejected.permanent);
+            assertTrue(rejected.reply.startsWith("550"), rejected.reply);
+
+            assertTrue(client.send("student@example.com", "Hi", "body", "2@lms").sent);
+        }
+        assertTrue(server.commands().contains("RSET"));
+        assertEquals(1, server.messageCount());
+    }
+
+    @Test
+    void transientRejectionIsRetryable() throws Exception {
+        server = new FakeSmtpServer(false);
+        try (SmtpClient client = SmtpClient.connect("127.0.0.1", server.port(), FROM)) {
+            SmtpClient.Result result = client.send("busy@example.com", "Hi", "body", "1@lms");
+            assertFalse(result.sent);
+            assertFalse(result.permanent);
+            assertTrue(result.reply.startsWith("451"), result.reply);
+        }
+    }
+
+    @Test
+    void rejectsAddressesThatCouldInjectCommands() throws Exception {
+        server = new FakeSmtpServer(true);
+        try (SmtpClient client = SmtpClient.connect("127.0.0.1", server.port(), FROM)) {
+            for (String address : List.of("a@example.com>\r\nRCPT TO:<b@example.com", "a@example.com\nBcc: b@example.com",
+                    "<a@example.com>", "")) {
+                SmtpClient.Result result = client.send(address, "Hi", "body", "1@lms");
+                assertFalse(result.sent);
+                assertTrue(result.permanent);
+            }
+        }
+        assertFalse(server.commands().stream().anyMatch(command -> command.startsWith("MAIL")));
+        assertThrows(IllegalArgumentException.class, () -> SmtpClient.connect("127.0.0.1", server.port(), "x@y\r\nQUIT"));
+    }
+
+    /**
+     * Single-connection SMTP server that accepts every recipient except unknown@ (550) and busy@ (451).
+     * With pipelining on it buffers its MAIL and RCPT replies and only flushes them after DATA.
+     */
+    private static final class FakeSmtpServer implements Closeable {
+        private final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        private final boolean pipelining;
+        private final List<String> commands = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<String>> envelopes = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<String>> dataLines = Collections.synchronizedList(new ArrayList<>());
+        private final Thread thread;
+
+        FakeSmtpServer(boolean pipelining) throws IOException {
+            this.pipelining = pipelining;
+            thread = new Thread(this::serve, "fake-smtp");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        List<String> commands() {
+            return commands;
+        }
+
+        List<String> envelope(int message) {
+            return envelopes.get(message);
+        }
+
+        int messageCount() {
+            return dataLines.size();
+        }
+
+        List<String> rawDataLines(int message) {
+            return dataLines.get(message);
+        }
+
+        // Message content with the dot-stuffing undone, as a receiving server would store it
+        String message(int message) {
+            List<String> lines = new ArrayList<>();
+            for (String line : dataLines.get(message)) {
+                lines.add(line.startsWith(".") ? line.substring(1) : line);
+            }
+            return String.join("\n", lines);
+        }
+
+        private void serve() {
+            try (Socket socket = serverSocket.accept();
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 OutputStream out = socket.getOutputStream()) {
+                StringBuilder pending = new StringBuilder();
+                reply(out, pending, "220 fake ESMTP", true);
+                List<String> envelope = new ArrayList<>();
+                boolean recipientAccepted = false;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    commands.add(line);
+                    String upper = line.toUpperCase();
+                    if (upper.startsWith("EHLO")) {
+                        reply(out, pending, pipelining ? "250-fake\r\n250-PIPELINING\r\n250 8BITMIME" : "250-fake\r\n250 8BITMIME", true);
+                    } else if (upper.startsWith("MAIL FROM:")) {
+                        envelope = new ArrayList<>(List.of(line));
+                        recipientAccepted = false;
+                        reply(out, pending, "250 OK", !pipelining);
+                    } else if (upper.startsWith("RCPT TO:")) {
+                        envelope.add(line);
+                        if (line.contains("unknown@")) {
+                            reply(out, pending, "550 No such user", !pipelining);
+                        } else if (line.contains("busy@")) {
+                            reply(out, pending, "451 Try again later", !pipelining);
+                        } else {
+                            recipientAccepted = true;
+                            reply(out, pending, "250 OK", !pipelining);
+                        }
+                    } else if (upper.equals("DATA")) {
+                        envelope.add(line);
+                        if (!recipientAccepted) {
+                            reply(out, pending, "554 No valid recipients", true);
+                            continue;
+                        }
+                        reply(out, pending, "354 End data with <CR><LF>.<CR><LF>", true);
+                        List<String> data = new ArrayList<>();
+                        while (!(line = in.readLine()).equals(".")) {
+                            data.add(line);
+                        }
+                        envelopes.add(envelope);
+                        dataLines.add(data);
+                        reply(out, pending, "250 Queued", true);
+                    } else if (upper.equals("RSET")) {
+                        recipientAccepted = false;
+                        reply(out, pending, "250 OK", true);
+                    } else if (upper.equals("QUIT")) {
+                        reply(out, pending, "221 Bye", true);
+                        return;
+                    } else {
+                        reply(out, pending, "500 Unknown command", true);
+                    }
+                }
+            } catch (IOException e) {
+                // The test has finished with the connection
+            }
+        }
+
+        private static void reply(OutputStream out, StringBuilder pending, String reply, boolean flush) throws IOException {
+            pending.append(reply).append("\r\n");
+            if (flush) {
+                out.write(pending.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                pending.setLength(0);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}